@@ -0,0 +1,109 @@
+package bench;
+
+import model.BitBoard;
+import model.Direction;
+import model.RushHour;
+import model.RushHourException;
+import model.RushHourSolver;
+import model.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** Per-operation cost of the board model the solvers are built on. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"easy", "medium", "hard", "large"})
+    public String puzzle;
+
+    private RushHour game;
+    private RushHourSolver config;
+    private BitBoard board;
+    private int[] moves;
+    private char movableId;
+    private Direction forward;
+    private Direction backward;
+
+    @Setup
+    public void setUp() throws RushHourException {
+        game = Puzzles.load(puzzle);
+        config = new RushHourSolver(game);
+        board = new BitBoard(game);
+        moves = new int[2 * board.getVehicleCount()];
+        // Any vehicle that can move, so moveVehicle can step there and back
+        for (Vehicle v : game.getVehicles()) {
+            for (Direction d : Direction.values()) {
+                if (movableId == 0 && game.canMove(v.getId(), d)) {
+                    movableId = v.getId();
+                    forward = d;
+                    backward = BitBoard.opposite(d);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void canMoveAll(Blackhole bh) {
+        for (Vehicle v : game.getVehicles()) {
+            for (Direction d : Direction.values()) {
+                bh.consume(game.canMove(v.getId(), d));
+            }
+        }
+    }
+
+    @Benchmark
+    public int moveVehicleThereAndBack() throws RushHourException {
+        game.moveVehicle(movableId, forward);
+        game.moveVehicle(movableId, backward);
+        return game.getMoveCount();
+    }
+
+    @Benchmark
+    public RushHour copyConstructor() {
+        return new RushHour(game);
+    }
+
+    @Benchmark
+    public Object getSuccessors() throws RushHourException {
+        return config.getSuccessors();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return config.isValid();
+    }
+
+    @Benchmark
+    public int bitBoardGenerateMoves() {
+        return board.generateMoves(moves);
+    }
+
+    // What a depth-first engine does per child, in place and without allocating
+    @Benchmark
+    public long bitBoardApplyUndo() {
+        int count = board.generateMoves(moves);
+        long keys = 0;
+        for (int m = 0; m < count; m++) {
+            board.apply(moves[m]);
+            keys += board.getKey();
+            board.undo(moves[m]);
+        }
+        return keys;
+    }
+}
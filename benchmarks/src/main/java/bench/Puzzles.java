@@ -0,0 +1,50 @@
+package bench;
+
+import model.PuzzleReader;
+import model.RushHour;
+import model.RushHourException;
+
+import java.util.Arrays;
+
+/** Fixed boards shared by the benchmarks, in the data/*.csv vehicle format. */
+final class Puzzles {
+    // data/03_01.csv, 8 moves
+    private static final String[] EASY = {
+        "O,0,2,2,2", "A,1,3,2,3", "R,2,0,2,1"
+    };
+    // 15 moves
+    private static final String[] MEDIUM = {
+        "X,2,0,2,1", "A,0,1,1,1", "B,1,3,1,4", "C,3,2,5,2", "D,2,4,4,4",
+        "E,5,4,5,5", "F,2,3,3,3", "G,4,1,5,1", "H,1,5,3,5"
+    };
+    // 25 moves
+    private static final String[] HARD = {
+        "X,2,0,2,1", "A,5,3,5,4", "B,3,3,4,3", "C,3,1,3,2", "D,1,4,1,5", "E,1,3,2,3",
+        "F,4,1,4,2", "G,4,4,4,5", "H,0,3,0,4", "I,3,0,4,0", "J,2,5,3,5", "K,0,2,1,2", "L,5,0,5,1"
+    };
+    // 8x8 with trucks and the exit at (3,7), 16 moves
+    private static final String[] LARGE = {
+        "size,8", "exit,3,7", "X,3,0,3,1", "A,6,4,7,4", "B,4,0,5,0", "C,4,6,4,7",
+        "D,4,3,4,4", "E,0,1,1,1", "F,5,1,7,1", "G,2,2,3,2", "H,1,4,1,6", "I,0,3,0,4",
+        "J,5,4,5,5", "K,3,5,4,5", "L,2,3,3,3", "M,6,7,7,7", "N,7,5,7,6", "O,5,6,5,7",
+        "P,6,5,6,6", "Q,5,3,6,3", "U,0,2,1,2", "S,4,2,5,2", "T,2,4,3,4"
+    };
+
+    private Puzzles() {
+    }
+
+    static RushHour load(String name) throws RushHourException {
+        switch (name) {
+            case "easy":
+                return PuzzleReader.parse(Arrays.asList(EASY));
+            case "medium":
+                return PuzzleReader.parse(Arrays.asList(MEDIUM));
+            case "hard":
+                return PuzzleReader.parse(Arrays.asList(HARD));
+            case "large":
+                return PuzzleReader.parse(Arrays.asList(LARGE));
+            default:
+                throw new RushHourException("Unknown puzzle: " + name);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package bench;
+
+import model.EngineType;
+import model.Heuristics;
+import model.InstrumentedSolver;
+import model.MoveMetric;
+import model.PuzzleReader;
+import model.RushHour;
+import model.RushHourException;
+import model.RushHourSolver;
+import model.SolverEngine;
+import model.SolverListener;
+import model.SolverMetrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end regression run, where the JMH benchmarks only time single boards. Solves every
+ * *.csv puzzle under a directory with every engine and writes one tab-separated line per solve:
+ * engine, puzzle, moves, wall time in milliseconds, nodes expanded, peak live heap and bytes
+ * allocated. Time and allocation are the best of --runs passes over the corpus after --warmup
+ * untimed ones; the peak heap comes from one more pass that collects the heap while the search
+ * holds its states (see peakHeap).
+ * With --baseline FILE (an earlier output) it exits with status 1 when a solution length changed
+ * or a compared metric grew by more than --threshold percent plus the metric's noise allowance.
+ * Wall time is only reported, with its total change on the way out: reruns on one idle machine
+ * moved single solves by more than any threshold that would still catch a regression.
+ *
+ * mvn -P regression verify in benchmarks/ runs it over corpus/ against regression-baseline.tsv.
+ * It needs the G1 collector. The counters compare anywhere; heap sizes depend on the JVM's
+ * object layout, so take the baseline with the JDK that runs the check.
+ */
+public class RegressionBenchmark {
+    private static final String USAGE =
+        "usage: RegressionBenchmark [--engines NAME,...] [--warmup N] [--runs N] [--threshold PCT] [--baseline FILE] [--out FILE] DIR";
+    private static final String HEADER = "engine\tpuzzle\tmoves\tmillis\texpanded\tpeakHeapBytes\tallocatedBytes";
+
+    // The portfolio's metrics depend on how its racing threads were scheduled, not just on the code
+    private static final Set<String> UNSTABLE = Set.of(EngineType.PORTFOLIO.getCliName());
+
+    /** The measured columns, with the growth below which a change counts as noise; NaN if only reported. */
+    private enum Metric {
+        MILLIS("millis", Double.NaN),
+        EXPANDED("expanded", 0),
+        PEAK_HEAP("peakHeapBytes", 64 << 10),
+        ALLOCATED("allocatedBytes", 1 << 20);
+
+        final String column;
+        final double slack;
+
+        Metric(String column, double slack) {
+            this.column = column;
+            this.slack = slack;
+        }
+
+        boolean isCompared() {
+            return !Double.isNaN(slack);
+        }
+    }
+
+    public static void main(String[] args) {
+        List<EngineType> engines = List.of(EngineType.values());
+        int warmups = 2;
+        int runs = 5;
+        double threshold = 10;
+        Path baselineFile = null;
+        Path outFile = null;
+        String input = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--engines":
+                        engines = new ArrayList<>();
+                        for (String name : args[++i].split(",")) {
+                            engines.add(EngineType.fromCliName(name));
+                        }
+                        break;
+                    case "--warmup":
+                        warmups = Integer.parseInt(args[++i]);
+                        break;
+                    case "--runs":
+                        runs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threshold":
+                        threshold = Double.parseDouble(args[++i]);
+                        break;
+                    case "--baseline":
+                        baselineFile = Paths.get(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        input = args[i];
+                }
+            }
+        } catch (RushHourException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e.getMessage());
+            input = null;
+        }
+        if (input == null || warmups < 0 || runs < 1 || threshold < 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if (ManagementFactory.getGarbageCollectorMXBeans().stream().noneMatch(gc -> gc.getName().startsWith("G1 "))) {
+            // The serial collector, the default on small machines, kept earlier solves' garbage
+            // through several System.gc() calls and hid later solves' peaks behind it
+            System.err.println("Run with -XX:+UseG1GC, which peakHeapBytes is measured with");
+            System.exit(2);
+        }
+
+        List<String> regressions;
+        try {
+            Map<String, RushHour> puzzles = readCorpus(Paths.get(input));
+            Map<String, Result> baseline = baselineFile == null ? null : readResults(baselineFile);
+            List<Result> results = new ArrayList<>();
+            try (PrintWriter out = outFile == null
+                    ? new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)))
+                    : new PrintWriter(Files.newBufferedWriter(outFile, StandardCharsets.UTF_8))) {
+                out.println(HEADER);
+                for (EngineType type : engines) {
+                    for (Result result : measure(type, puzzles, warmups, runs)) {
+                        results.add(result);
+                        out.println(result);
+                    }
+                    out.flush();
+                }
+            }
+            if (baseline == null) {
+                return;
+            }
+            regressions = compare(results, baseline, threshold / 100);
+            System.err.println(results.size() + " solves compared with " + baselineFile + ", "
+                + regressions.size() + " regressions; " + timeChange(results, baseline));
+        } catch (IOException | RushHourException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        regressions.forEach(System.err::println);
+        if (!regressions.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /** The corpus puzzles by file name, in name order. */
+    private static Map<String, RushHour> readCorpus(Path dir) throws IOException, RushHourException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".csv"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        if (files.isEmpty()) {
+            throw new RushHourException("No *.csv puzzles under " + dir);
+        }
+        Map<String, RushHour> puzzles = new LinkedHashMap<>();
+        for (Path file : files) {
+            puzzles.put(dir.relativize(file).toString().replace('\\', '/'), PuzzleReader.read(file));
+        }
+        return puzzles;
+    }
+
+    private static Map<String, Result> readResults(Path file) throws IOException, RushHourException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!line.isBlank() && !line.equals(HEADER)) {
+                Result result = Result.parse(line);
+                results.put(result.key(), result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Solves the whole corpus {@code warmups} times untimed, so the runs find the engine's code
+     * compiled, then {@code runs} times more, keeping each puzzle's best of every metric, then
+     * once more for the peak heap.
+     */
+    private static List<Result> measure(EngineType type, Map<String, RushHour> puzzles, int warmups, int runs)
+            throws RushHourException {
+        // One engine for the whole corpus, as BatchSolver keeps one per worker
+        SolverEngine engine = type.create(Heuristics.BLOCKERS_OF_BLOCKERS, MoveMetric.CELLS);
+        for (int run = 0; run < warmups; run++) {
+            for (RushHour puzzle : puzzles.values()) {
+                RushHourSolver.solve(puzzle, engine);
+            }
+        }
+        List<Result> best = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            int i = 0;
+            for (Map.Entry<String, RushHour> puzzle : puzzles.entrySet()) {
+                Result result = measure(type.getCliName(), puzzle.getKey(), engine, puzzle.getValue());
+                if (run == 0) {
+                    best.add(result);
+                } else {
+                    best.set(i, best.get(i).min(result));
+                }
+                i++;
+            }
+        }
+        int i = 0;
+        for (RushHour puzzle : puzzles.values()) {
+            best.get(i++).values[Metric.PEAK_HEAP.ordinal()] = peakHeap(engine, puzzle);
+        }
+        return best;
+    }
+
+    private static Result measure(String engineName, String puzzleName, SolverEngine engine, RushHour puzzle)
+            throws RushHourException {
+        // Collect first so the earlier solves' garbage is not collected on this one's time
+        System.gc();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        RushHourSolver solution = RushHourSolver.solve(puzzle, engine);
+        double millis = (System.nanoTime() - start) / 1e6;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        double[] values = new double[Metric.values().length];
+        values[Metric.MILLIS.ordinal()] = millis;
+        values[Metric.EXPANDED.ordinal()] = engine.getNodesExpanded();
+        values[Metric.ALLOCATED.ordinal()] = allocated;
+        return new Result(engineName, puzzleName, solution == null ? -1 : solution.getMoves().size(), values);
+    }
+
+    /**
+     * Heap still reachable at the fullest point of a solve, over what was reachable before it.
+     * The heap is collected at every progress report and when the solution is found, while the
+     * search holds its states, so the result is the live size to the byte rather than whatever
+     * garbage the young generation happened to hold. A solve too short for a progress report and
+     * without a solution reports 0, as do engines that are not InstrumentedSolvers.
+     */
+    private static long peakHeap(SolverEngine engine, RushHour puzzle) throws RushHourException {
+        if (!(engine instanceof InstrumentedSolver)) {
+            return 0;
+        }
+        InstrumentedSolver solver = (InstrumentedSolver) engine;
+        long before = liveHeap();
+        long[] peak = {before};
+        solver.setListener(new SolverListener() {
+            @Override
+            public void onProgress(SolverMetrics metrics) {
+                peak[0] = Math.max(peak[0], liveHeap());
+            }
+
+            @Override
+            public void onSolutionFound(SolverMetrics metrics) {
+                peak[0] = Math.max(peak[0], liveHeap());
+            }
+        });
+        try {
+            RushHourSolver.solve(puzzle, engine);
+        } finally {
+            solver.setListener(null);
+        }
+        return peak[0] - before;
+    }
+
+    /**
+     * Heap in use right after a full collection, read from the collection's own figures so that
+     * nothing allocated since counts. Repeated until one frees nothing more, as one is not
+     * always enough.
+     */
+    private static long liveHeap() {
+        long live = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            long used = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                    used += pool.getCollectionUsage().getUsed();
+                }
+            }
+            if (used >= live) {
+                break;
+            }
+            live = used;
+            Thread.yield();
+        }
+        return live;
+    }
+
+    /**
+     * Bytes allocated so far by all live threads. Engines that search on pool threads are
+     * covered as long as the pool keeps its threads between solves, which the JDK pools do.
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /** Every way {@code results} got worse than {@code baseline}, one line each. */
+    private static List<String> compare(List<Result> results, Map<String, Result> baseline, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        for (Result result : results) {
+            Result base = baseline.get(result.key());
+            if (base == null) {
+                continue; // a new engine or puzzle has nothing to regress from
+            }
+            if (result.moves != base.moves) {
+                regressions.add(result.key() + ": moves " + base.moves + " -> " + result.moves);
+            }
+            if (UNSTABLE.contains(result.engine)) {
+                continue;
+            }
+            for (Metric metric : Metric.values()) {
+                if (!metric.isCompared()) {
+                    continue;
+                }
+                double was = base.values[metric.ordinal()];
+                double now = result.values[metric.ordinal()];
+                if (now > was * (1 + threshold) + metric.slack) {
+                    regressions.add(String.format(Locale.ROOT, "%s: %s %s -> %s (%+.0f%%)", result.key(), metric.column,
+                        format(was), format(now), was == 0 ? 100.0 : 100 * (now - was) / was));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    /** Total wall time of the solves the baseline has too, against the baseline's. */
+    private static String timeChange(List<Result> results, Map<String, Result> baseline) {
+        double was = 0;
+        double now = 0;
+        for (Result result : results) {
+            Result base = baseline.get(result.key());
+            if (base != null) {
+                was += base.values[Metric.MILLIS.ordinal()];
+                now += result.values[Metric.MILLIS.ordinal()];
+            }
+        }
+        return String.format(Locale.ROOT, "wall time %.0f ms -> %.0f ms (%+.0f%%), not compared", was, now,
+            was == 0 ? 0.0 : 100 * (now - was) / was);
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /** One line of the output. */
+    private static final class Result {
+        final String engine;
+        final String puzzle;
+        final int moves;
+        final double[] values; // by Metric ordinal
+
+        Result(String engine, String puzzle, int moves, double[] values) {
+            this.engine = engine;
+            this.puzzle = puzzle;
+            this.moves = moves;
+            this.values = values;
+        }
+
+        String key() {
+            return engine + " " + puzzle;
+        }
+
+        /** The better of each metric; a run's length is the same as any other's. */
+        Result min(Result other) {
+            double[] best = new double[values.length];
+            for (int i = 0; i < best.length; i++) {
+                best[i] = Math.min(values[i], other.values[i]);
+            }
+            return new Result(engine, puzzle, moves, best);
+        }
+
+        static Result parse(String line) throws RushHourException {
+            String[] fields = line.split("\t");
+            if (fields.length != 3 + Metric.values().length) {
+                throw new RushHourException("Not a result line: " + line);
+            }
+            try {
+                double[] values = new double[Metric.values().length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Double.parseDouble(fields[3 + i]);
+                }
+                return new Result(fields[0], fields[1], Integer.parseInt(fields[2]), values);
+            } catch (NumberFormatException e) {
+                throw new RushHourException("Not a result line: " + line);
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder().append(engine).append('\t').append(puzzle).append('\t').append(moves);
+            for (double value : values) {
+                sb.append('\t').append(format(value));
+            }
+            return sb.toString();
+        }
+    }
+}
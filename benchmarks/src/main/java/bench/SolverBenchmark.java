@@ -0,0 +1,50 @@
+package bench;
+
+import model.EngineType;
+import model.Heuristics;
+import model.RushHour;
+import model.RushHourException;
+import model.RushHourSolver;
+import model.SolverEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** End-to-end solve time per engine on the fixed puzzles. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({"easy", "medium", "hard", "large"})
+    public String puzzle;
+
+    @Param({"bfs", "parallel", "external", "bidirectional", "astar", "idastar", "backtracker", "portfolio"})
+    public String engine;
+
+    private RushHour game;
+    private SolverEngine solver;
+
+    @Setup
+    public void setUp() throws RushHourException {
+        game = Puzzles.load(puzzle);
+        solver = EngineType.fromCliName(engine).create(Heuristics.BLOCKERS_OF_BLOCKERS);
+    }
+
+    @Benchmark
+    public RushHourSolver solve() throws RushHourException {
+        return RushHourSolver.solve(game, solver);
+    }
+}
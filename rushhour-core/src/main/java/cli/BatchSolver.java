@@ -0,0 +1,300 @@
+package cli;
+
+import model.BreadthFirstSolver;
+import model.CachingSolver;
+import model.EngineType;
+import model.ExternalBreadthFirstSolver;
+import model.Heuristic;
+import model.Heuristics;
+import model.InstrumentedSolver;
+import model.Move;
+import model.MoveMetric;
+import model.PuzzleReader;
+import model.RushHour;
+import model.RushHourException;
+import model.RushHourSolver;
+import model.SolutionCache;
+import model.SolverEngine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Headless solver for puzzle files in the data/*.csv format.
+ * Reads every *.csv under a directory (or blank-line separated puzzles from stdin with "-"),
+ * solves them on a bounded worker pool and prints one tab-separated line per puzzle:
+ * name, move count, solution, nodes expanded and wall time in milliseconds.
+ * With --cache FILE, solutions are looked up in and saved back to a SolutionCache file.
+ * With --verify, every puzzle is instead solved by every engine and checked against plain
+ * breadth-first search (see verify); the exit status is 1 when any check failed.
+ */
+public class BatchSolver {
+    private static final String USAGE =
+        "usage: BatchSolver [--engine bfs|parallel|external|bidirectional|astar|idastar|backtracker|portfolio] [--heuristic NAME] [--metric cells|slides] [--threads N] [--cache FILE]"
+            + " [--verify] (DIR|FILE|-)";
+    // Engines that search with the heuristic they are given; --verify tries each of them with all
+    private static final Set<EngineType> INFORMED =
+        EnumSet.of(EngineType.ASTAR, EngineType.IDA_STAR, EngineType.PORTFOLIO);
+    // Small enough that the external engine's larger layers spill and its successors merge from runs
+    private static final long VERIFY_SPILL_BUDGET = 16 << 10;
+
+    private final EngineType engineType;
+    private final Heuristic heuristic;
+    private final MoveMetric metric;
+    private final int threads;
+    private final PrintWriter out;
+    private final SolutionCache cache;
+    private final ThreadLocal<SolverEngine> engines;
+    private final AtomicInteger failures = new AtomicInteger();
+    private boolean verify;
+
+    public BatchSolver(EngineType engineType, Heuristic heuristic, int threads, PrintWriter out) {
+        this(engineType, heuristic, MoveMetric.CELLS, threads, out, null);
+    }
+
+    /** A null cache searches every puzzle; otherwise all workers share the cache. */
+    public BatchSolver(EngineType engineType, Heuristic heuristic, MoveMetric metric, int threads,
+                       PrintWriter out, SolutionCache cache) {
+        this.engineType = engineType;
+        this.heuristic = heuristic;
+        this.metric = metric;
+        this.threads = threads;
+        this.out = out;
+        this.cache = cache;
+        // Engines keep per-solve state, so every worker gets its own
+        this.engines = ThreadLocal.withInitial(() -> {
+            SolverEngine engine = this.engineType.create(this.heuristic, this.metric);
+            return this.cache == null ? engine : new CachingSolver(this.cache, engine);
+        });
+    }
+
+    /** Whether run() checks every engine on each puzzle instead of solving it once. */
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+
+    /** Puzzles on which a check failed or that could not be read, so far. */
+    public int getFailures() {
+        return failures.get();
+    }
+
+    public static void main(String[] args) {
+        EngineType engineType = EngineType.BFS;
+        Heuristic heuristic = Heuristics.BLOCKERS_OF_BLOCKERS;
+        MoveMetric metric = MoveMetric.CELLS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String input = null;
+        Path cacheFile = null;
+        boolean verify = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--engine":
+                        engineType = EngineType.fromCliName(args[++i]);
+                        break;
+                    case "--heuristic":
+                        heuristic = Heuristics.valueOf(args[++i].toUpperCase().replace('-', '_'));
+                        break;
+                    case "--metric":
+                        metric = MoveMetric.valueOf(args[++i].toUpperCase());
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cache":
+                        cacheFile = Paths.get(args[++i]);
+                        break;
+                    case "--verify":
+                        verify = true;
+                        break;
+                    default:
+                        input = args[i];
+                }
+            }
+        } catch (RushHourException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e.getMessage());
+            input = null;
+        }
+        if (input == null || threads < 1) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        int failures = 0;
+        try {
+            SolutionCache cache = null;
+            if (cacheFile != null) {
+                cache = new SolutionCache(SolutionCache.DEFAULT_MAX_ENTRIES);
+                cache.load(cacheFile);
+            }
+            BatchSolver solver = new BatchSolver(engineType, heuristic, metric, threads, out, cache);
+            solver.setVerify(verify);
+            solver.run(input);
+            failures = verify ? solver.getFailures() : 0;
+            if (cache != null) {
+                cache.save(cacheFile);
+            }
+        } catch (IOException | RushHourException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            out.flush();
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    public void run(String input) throws IOException {
+        // A short queue and caller-runs keep only a few parsed puzzles in memory at a time
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            if ("-".equals(input)) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                List<String> lines;
+                int index = 0;
+                while ((lines = PuzzleReader.nextPuzzle(reader)) != null) {
+                    String name = "stdin#" + (++index);
+                    List<String> puzzle = lines;
+                    pool.execute(() -> solve(name, () -> PuzzleReader.parse(puzzle)));
+                }
+            } else {
+                try (Stream<Path> files = Files.walk(Paths.get(input))) {
+                    files.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".csv"))
+                        .forEach(p -> pool.execute(() -> solve(p.toString(), () -> PuzzleReader.read(p))));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void solve(String name, PuzzleSource source) {
+        String line;
+        try {
+            RushHour puzzle = source.load();
+            if (verify) {
+                line = name + "\t" + verify(puzzle);
+                synchronized (out) {
+                    out.println(line);
+                }
+                return;
+            }
+            SolverEngine engine = engines.get();
+            long start = System.nanoTime();
+            RushHourSolver solution = RushHourSolver.solve(puzzle, engine);
+            double millis = (System.nanoTime() - start) / 1e6;
+            line = name + "\t" + (solution == null ? -1 : solution.getMoves().size())
+                + "\t" + (solution == null || solution.getMoves().isEmpty() ? "-" : tokens(solution.getMoves()))
+                + "\t" + engine.getNodesExpanded()
+                + "\t" + String.format(Locale.ROOT, "%.3f", millis);
+        } catch (IOException | RushHourException | RuntimeException e) {
+            failures.incrementAndGet();
+            line = name + "\tERROR\t" + e.getMessage();
+        }
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+
+    /**
+     * Solves {@code puzzle} with every engine, the informed ones with every heuristic, and with
+     * the external engine under VERIFY_SPILL_BUDGET, and checks each answer against
+     * BreadthFirstSolver's: optimal engines must match its length and the others must not beat
+     * it, there must be no solution exactly when it finds none, and every move list must replay
+     * to the goal. Engines that are not complete are skipped on puzzles without a solution.
+     * Returns the length BFS found and OK, or the failed checks.
+     */
+    private String verify(RushHour puzzle) throws RushHourException {
+        RushHourSolver reference = RushHourSolver.solve(puzzle, engine(new BreadthFirstSolver()));
+        int expected = reference == null ? -1 : reference.getMoves().size();
+        List<String> failed = new ArrayList<>();
+        for (EngineType type : EngineType.values()) {
+            if (expected < 0 && !type.isComplete()) {
+                continue; // IDA* would deepen to its cap before giving up
+            }
+            for (Heuristic h : INFORMED.contains(type) ? Heuristics.values() : new Heuristic[] {heuristic}) {
+                String label = INFORMED.contains(type) ? type.getCliName() + "/" + h : type.getCliName();
+                check(label, type.isOptimal(), puzzle, type.create(h, metric), expected, failed);
+            }
+        }
+        check("external/spilling", true, puzzle,
+            engine(new ExternalBreadthFirstSolver(VERIFY_SPILL_BUDGET, null)), expected, failed);
+        if (!failed.isEmpty()) {
+            failures.incrementAndGet();
+            return expected + "\tFAILED\t" + String.join("; ", failed);
+        }
+        return expected + "\tOK";
+    }
+
+    private InstrumentedSolver engine(InstrumentedSolver engine) {
+        engine.setMetric(metric);
+        return engine;
+    }
+
+    private static void check(String label, boolean optimal, RushHour puzzle, SolverEngine engine, int expected,
+                              List<String> failed) {
+        try {
+            RushHourSolver solution = RushHourSolver.solve(puzzle, engine);
+            int length = solution == null ? -1 : solution.getMoves().size();
+            if (optimal ? length != expected : (length < 0) != (expected < 0) || length < expected) {
+                failed.add(label + " found " + length);
+            } else if (solution != null && !reachesGoal(puzzle, solution.getMoves())) {
+                failed.add(label + " does not reach the goal");
+            }
+        } catch (RushHourException | RuntimeException e) {
+            failed.add(label + " threw " + e);
+        }
+    }
+
+    private static boolean reachesGoal(RushHour puzzle, List<Move> moves) throws RushHourException {
+        RushHour board = new RushHour(puzzle);
+        for (Move move : moves) {
+            board.moveVehicle(move.getVehicleId(), move.getDirection(), move.getDistance());
+        }
+        return board.isGameOver();
+    }
+
+    private static String tokens(List<Move> moves) {
+        StringBuilder sb = new StringBuilder();
+        for (Move move : moves) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(move);
+        }
+        return sb.toString();
+    }
+
+    private interface PuzzleSource {
+        RushHour load() throws IOException, RushHourException;
+    }
+}
@@ -0,0 +1,40 @@
+package cli;
+
+import model.DistanceDatabase;
+import model.PuzzleReader;
+import model.RushHour;
+import model.RushHourException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Precomputes the distance database for the vehicle set of a puzzle file and writes it out.
+ * Prints the table size, the longest optimal solution and the puzzle's own distance.
+ */
+public class BuildDistanceDatabase {
+    private static final String USAGE = "usage: BuildDistanceDatabase PUZZLE.csv OUT.db";
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        Path output = Paths.get(args[1]);
+        try {
+            RushHour puzzle = PuzzleReader.read(Paths.get(args[0]));
+            long start = System.nanoTime();
+            DistanceDatabase database = DistanceDatabase.build(puzzle);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            database.write(output);
+            System.out.println(String.format(Locale.ROOT,
+                "%s: %d vehicles, longest solution %d, puzzle distance %d, built in %.2f s",
+                output, database.getVehicleCount(), database.getMaxDistance(), database.distance(puzzle), seconds));
+        } catch (IOException | RushHourException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
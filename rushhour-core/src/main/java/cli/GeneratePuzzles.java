@@ -0,0 +1,107 @@
+package cli;
+
+import model.Position;
+import model.PuzzleCorpus;
+import model.PuzzleGenerator;
+import model.RushHour;
+import model.RushHourException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Generates solvable puzzles graded by optimal solution length and adds them to a corpus file
+ * (see PuzzleCorpus), creating it if needed. Prints how many puzzles each difficulty has.
+ */
+public class GeneratePuzzles {
+    private static final String USAGE =
+        "usage: GeneratePuzzles [--count N] [--min-moves N] [--vehicles MIN-MAX] [--size N] [--exit ROW,COL]"
+            + " [--trucks SHARE] [--threads N] [--attempts N] [--seed N] OUT.txt";
+
+    public static void main(String[] args) {
+        int count = 100;
+        int minMoves = 10;
+        int minVehicles = 8;
+        int maxVehicles = 13;
+        int size = RushHour.DEFAULT_SIZE;
+        Position exit = null;
+        double trucks = PuzzleGenerator.DEFAULT_TRUCK_SHARE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long attempts = -1;
+        long seed = System.nanoTime();
+        String output = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--count":
+                        count = Integer.parseInt(args[++i]);
+                        break;
+                    case "--min-moves":
+                        minMoves = Integer.parseInt(args[++i]);
+                        break;
+                    case "--vehicles": {
+                        String[] range = args[++i].split("-");
+                        minVehicles = Integer.parseInt(range[0]);
+                        maxVehicles = Integer.parseInt(range[range.length - 1]);
+                        break;
+                    }
+                    case "--size":
+                        size = Integer.parseInt(args[++i]);
+                        break;
+                    case "--exit": {
+                        String[] cell = args[++i].split(",");
+                        exit = new Position(Integer.parseInt(cell[0]), Integer.parseInt(cell[1]));
+                        break;
+                    }
+                    case "--trucks":
+                        trucks = Double.parseDouble(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--attempts":
+                        attempts = Long.parseLong(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        output = args[i];
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e.getMessage());
+            output = null;
+        }
+        if (output == null || count < 1 || threads < 1) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Path file = Paths.get(output);
+        try {
+            if (exit == null) {
+                exit = new RushHour(size).getExit();
+            }
+            PuzzleGenerator generator = new PuzzleGenerator(size, exit, minVehicles, maxVehicles, trucks,
+                PuzzleGenerator.DEFAULT_STATE_CAP);
+            PuzzleCorpus corpus = Files.exists(file) ? PuzzleCorpus.read(file) : new PuzzleCorpus();
+            long start = System.nanoTime();
+            int added = generator.generate(corpus, count, minMoves, attempts < 0 ? count * 1000L : attempts,
+                threads, seed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            corpus.write(file);
+            System.out.println(String.format(Locale.ROOT, "%s: added %d puzzles in %.2f s, %d in total",
+                file, added, seconds, corpus.size()));
+            for (int moves : corpus.getDifficulties()) {
+                System.out.println(moves + " moves\t" + corpus.getPuzzles(moves).size());
+            }
+        } catch (IOException | RushHourException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.CachingSolver;
+import model.EngineType;
+import model.Heuristic;
+import model.Heuristics;
+import model.InstrumentedSolver;
+import model.Move;
+import model.MoveMetric;
+import model.PuzzleReader;
+import model.RushHour;
+import model.RushHourException;
+import model.RushHourSolver;
+import model.SearchAbortedException;
+import model.SearchLimits;
+import model.SolutionCache;
+import model.SolverEngine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solver over HTTP on the loopback interface, for tools that cannot link the solver in.
+ * POST /solve takes a puzzle in the data/*.csv format (optionally ?metric=slides and
+ * ?timeout=MILLIS) and answers with one tab-separated line as BatchSolver prints it, without the
+ * name: move count (-1 for no solution), solution, nodes expanded and solve time in milliseconds.
+ * GET /stats reports request counters.
+ * A request holds a thread only while its body is read and its response written; while it waits
+ * for the solve it is just a callback on the answer, so thousands of waiters cost no threads.
+ * Requests for a board that is already being solved, with the same
+ * or other ids for its vehicles, wait for that solve instead of starting another and get its
+ * moves in their own ids; a solve nobody waits for any more is cancelled. Past
+ * maxRequests requests in flight, or a full solve queue, new requests get 503 at once.
+ */
+public class SolverServer {
+    private static final String USAGE =
+        "usage: SolverServer [--port N] [--engine bfs|parallel|external|bidirectional|astar|idastar|backtracker|portfolio] [--heuristic NAME]"
+            + " [--threads N] [--max-requests N] [--timeout MILLIS] [--cache FILE]";
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int QUEUED_SOLVES_PER_THREAD = 64;
+
+    private final EngineType engineType;
+    private final Heuristic heuristic;
+    private final long maxTimeoutMillis;
+    private final SolutionCache cache;
+    private final Semaphore admission;
+    private final ThreadPoolExecutor solvers;
+    private final ExecutorService handlers;
+    private final HttpServer server;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong solves = new AtomicLong();
+
+    /**
+     * Binds to {@code port} on the loopback address (0 picks a free port); call start() to serve.
+     * Solves run on {@code threads} threads and are stopped after {@code maxTimeoutMillis},
+     * which also caps the timeout a request may ask for. A null cache solves every board.
+     */
+    public SolverServer(int port, EngineType engineType, Heuristic heuristic, int threads, int maxRequests,
+                        long maxTimeoutMillis, SolutionCache cache) throws IOException {
+        this.engineType = engineType;
+        this.heuristic = heuristic;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.cache = cache;
+        this.admission = new Semaphore(maxRequests);
+        // Solves are CPU-bound, so they get a fixed pool however many requests are waiting
+        this.solvers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads * QUEUED_SOLVES_PER_THREAD), r -> {
+                Thread thread = new Thread(r, "rushhour-solver");
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.handlers = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxRequests);
+        this.server.setExecutor(handlers);
+        this.server.createContext("/solve", this::handleSolve);
+        this.server.createContext("/stats", this::handleStats);
+    }
+
+    public static void main(String[] args) {
+        int port = 8080;
+        EngineType engineType = EngineType.BFS;
+        Heuristic heuristic = Heuristics.BLOCKERS_OF_BLOCKERS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxRequests = 10_000;
+        long timeout = 10_000;
+        Path cacheFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--engine":
+                        engineType = EngineType.fromCliName(args[++i]);
+                        break;
+                    case "--heuristic":
+                        heuristic = Heuristics.valueOf(args[++i].toUpperCase().replace('-', '_'));
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-requests":
+                        maxRequests = Integer.parseInt(args[++i]);
+                        break;
+                    case "--timeout":
+                        timeout = Long.parseLong(args[++i]);
+                        break;
+                    case "--cache":
+                        cacheFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (RushHourException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e.getMessage());
+            threads = 0;
+        }
+        if (threads < 1 || maxRequests < 1 || timeout < 1) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            SolutionCache cache = new SolutionCache(SolutionCache.DEFAULT_MAX_ENTRIES);
+            if (cacheFile != null) {
+                cache.load(cacheFile);
+            }
+            SolverServer server = new SolverServer(port, engineType, heuristic, threads, maxRequests, timeout, cache);
+            Path saveTo = cacheFile;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                if (saveTo != null) {
+                    try {
+                        cache.save(saveTo);
+                    } catch (IOException e) {
+                        System.err.println("Could not save the solution cache: " + e.getMessage());
+                    }
+                }
+            }));
+            server.start();
+            System.out.println("Solving on http://localhost:" + server.getPort() + "/solve");
+        } catch (IOException | RushHourException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        handlers.shutdownNow();
+        solvers.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Reads requests and writes responses: on virtual threads where the JVM has them (Java 21 and later). */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "rushhour-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (!admission.tryAcquire()) {
+            rejected.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, "Too many requests in flight");
+            return;
+        }
+        boolean waiting = false;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Use POST with a puzzle in the body");
+                return;
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            MoveMetric metric;
+            long timeout;
+            RushHour puzzle;
+            try {
+                metric = MoveMetric.valueOf(query.getOrDefault("metric", "cells").toUpperCase(Locale.ROOT));
+                timeout = Math.min(maxTimeoutMillis, Long.parseLong(query.getOrDefault("timeout", "" + maxTimeoutMillis)));
+                byte[] body = readBody(exchange.getRequestBody());
+                if (body == null) {
+                    respond(exchange, 413, "Puzzle larger than " + MAX_BODY_BYTES + " bytes");
+                    return;
+                }
+                List<String> lines = Arrays.asList(new String(body, StandardCharsets.UTF_8).split("\r?\n"));
+                puzzle = PuzzleReader.parse(lines);
+            } catch (RushHourException | IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage());
+                return;
+            }
+
+            // the response is sent, and the admission released, when the answer or the timeout arrives
+            solve(puzzle, metric, timeout).whenCompleteAsync(
+                (line, error) -> answer(exchange, line, error, timeout), handlers);
+            waiting = true;
+        } finally {
+            if (!waiting) {
+                admission.release();
+            }
+        }
+    }
+
+    private void answer(HttpExchange exchange, String line, Throwable error, long timeout) {
+        try {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+            if (cause == null) {
+                respond(exchange, 200, line);
+            } else if (cause instanceof RejectedExecutionException) {
+                rejected.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, "Solver queue is full");
+            } else if (cause instanceof TimeoutException) {
+                timeouts.incrementAndGet();
+                respond(exchange, 504, "No answer within " + timeout + " ms");
+            } else {
+                boolean timedOut = cause instanceof SearchAbortedException
+                    && ((SearchAbortedException) cause).getReason() == SearchAbortedException.Reason.TIME_LIMIT;
+                if (timedOut) {
+                    timeouts.incrementAndGet();
+                }
+                respond(exchange, timedOut ? 504 : 500, String.valueOf(cause.getMessage()));
+            }
+        } catch (IOException e) {
+            exchange.close(); // the client is gone; nobody is left to tell
+        } finally {
+            admission.release();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, "requests\t" + requests.get()
+            + "\ncoalesced\t" + coalesced.get()
+            + "\nrejected\t" + rejected.get()
+            + "\ntimeouts\t" + timeouts.get()
+            + "\nsolves\t" + solves.get()
+            + "\nin_flight\t" + pending.size());
+    }
+
+    /**
+     * The response line, or a TimeoutException after {@code timeoutMillis}, joining a solve of the
+     * same board if one is running; the key ignores which same-shaped vehicle got which id, so
+     * Answer.line puts the moves back in this request's ids. Fails with RejectedExecutionException
+     * when the solve queue is full. The request stops waiting when the returned future completes.
+     */
+    CompletableFuture<String> solve(RushHour puzzle, MoveMetric metric, long timeoutMillis) {
+        String key = metric + ":" + SolutionCache.keyOf(puzzle);
+        Pending joined;
+        while (true) {
+            Pending created = new Pending();
+            created.join();
+            Pending existing = pending.putIfAbsent(key, created);
+            if (existing == null) {
+                start(key, created, puzzle, metric);
+                joined = created;
+                break;
+            }
+            if (existing.join()) {
+                coalesced.incrementAndGet();
+                joined = existing;
+                break;
+            }
+            // everyone left that solve and it is being cancelled; start a fresh one
+            pending.remove(key, existing);
+        }
+
+        // thenApply gives this waiter its own future, so its timeout leaves the shared one alone
+        Pending solve = joined;
+        return joined.result.thenApply(answer -> answer.line(puzzle))
+            .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+            .whenComplete((line, error) -> solve.leave(key));
+    }
+
+    private void start(String key, Pending solve, RushHour puzzle, MoveMetric metric) {
+        try {
+            solvers.execute(() -> {
+                try {
+                    solves.incrementAndGet();
+                    SolverEngine engine = engineType.create(heuristic, metric);
+                    if (engine instanceof InstrumentedSolver) {
+                        ((InstrumentedSolver) engine).setLimits(solve.limits);
+                    }
+                    SolverEngine solver = cache == null ? engine : new CachingSolver(cache, engine);
+                    long started = System.nanoTime();
+                    RushHourSolver solution = RushHourSolver.solve(puzzle, solver);
+                    double millis = (System.nanoTime() - started) / 1e6;
+                    solve.result.complete(new Answer(puzzle, solution == null ? null : solution.getMoves(),
+                        solver.getNodesExpanded(), millis));
+                } catch (RushHourException | RuntimeException e) {
+                    solve.result.completeExceptionally(e);
+                } finally {
+                    pending.remove(key, solve);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(key, solve);
+            solve.result.completeExceptionally(e);
+        }
+    }
+
+    private static String tokens(List<Move> moves) {
+        StringBuilder sb = new StringBuilder();
+        for (Move move : moves) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(move);
+        }
+        return sb.toString();
+    }
+
+    /** The body, or null when it is larger than MAX_BODY_BYTES. */
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            body.write(chunk, 0, read);
+            if (body.size() > MAX_BODY_BYTES) {
+                return null;
+            }
+        }
+        return body.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] body = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** The outcome of one solve, with its moves in the ids of the board it was started for. */
+    private static final class Answer {
+        final RushHour solved;
+        final List<Move> moves; // null when there is no solution
+        final long nodes;
+        final double millis;
+
+        Answer(RushHour solved, List<Move> moves, long nodes, double millis) {
+            this.solved = solved;
+            this.moves = moves;
+            this.nodes = nodes;
+            this.millis = millis;
+        }
+
+        /** The response line for a waiter that asked about {@code puzzle}, a board with the same key. */
+        String line(RushHour puzzle) {
+            List<Move> own = moves == null ? null : SolutionCache.relabel(moves, solved, puzzle);
+            return (own == null ? -1 : own.size())
+                + "\t" + (own == null || own.isEmpty() ? "-" : tokens(own))
+                + "\t" + nodes
+                + "\t" + String.format(Locale.ROOT, "%.3f", millis);
+        }
+    }
+
+    /** A running solve and the requests waiting for it. */
+    private final class Pending {
+        final CompletableFuture<Answer> result = new CompletableFuture<>();
+        final SearchLimits limits = new SearchLimits(maxTimeoutMillis, 0);
+        private int waiters;
+        private boolean abandoned;
+
+        /** Adds a waiter; false once the last one left and the solve is being cancelled. */
+        synchronized boolean join() {
+            if (abandoned) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        synchronized void leave(String key) {
+            if (--waiters == 0 && !result.isDone()) {
+                abandoned = true;
+                pending.remove(key, this);
+                limits.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** A* search over BitBoard states; move-optimal whenever the heuristic is admissible. */
+public class AStarSolver extends InstrumentedSolver {
+    private static final int MOVE_BITS = 12; // see BitBoard.encodeMove
+    private static final int NO_MOVE = (1 << MOVE_BITS) - 1;
+
+    private final Heuristic heuristic;
+
+    public AStarSolver(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    protected RushHourSolver search(RushHourSolver config) throws RushHourException {
+        if (config == null || !config.isValid()) {
+            return null;
+        }
+        if (config.isGoal()) {
+            return config;
+        }
+
+        BitBoard board = new BitBoard(config.rushHour);
+        int[] moves = new int[board.maxMoves(metric)];
+        Heuristic heuristic = this.heuristic.prepare(board, metric, this::checkLimits);
+
+        // Per state: best known g in the high bits and the move that reached it in the low MOVE_BITS
+        LongIntHashMap records = new LongIntHashMap();
+        long start = board.getKey();
+        records.put(start, NO_MOVE);
+
+        // Bucket queue indexed by f = g + h; each entry is a (key, g) pair
+        List<LongArrayList> buckets = new ArrayList<>();
+        int f = heuristic.estimate(board, metric);
+        if (f >= Heuristics.UNSOLVABLE) {
+            return null;
+        }
+        push(buckets, f, start, 0);
+        long open = 1;
+
+        while (f < buckets.size()) {
+            LongArrayList bucket = buckets.get(f);
+            if (bucket.isEmpty()) {
+                f++;
+                continue;
+            }
+            int g = (int) bucket.removeLast();
+            long key = bucket.removeLast();
+            open--;
+            if (g > records.get(key) >>> MOVE_BITS) {
+                continue; // a shorter path to this state was queued later
+            }
+            board.load(key);
+            if (board.isGoal()) {
+                solutionFound();
+                return config.followedBy(tracePath(board, records, start));
+            }
+            int count = board.generateMoves(moves, metric);
+            metrics.expanded(1);
+            metrics.generated(count);
+            for (int m = 0; m < count; m++) {
+                board.apply(moves[m]);
+                long child = board.getKey();
+                int known = records.get(child);
+                if (known == LongIntHashMap.NO_VALUE || g + 1 < known >>> MOVE_BITS) {
+                    int h = heuristic.estimate(board, metric);
+                    if (h < Heuristics.UNSOLVABLE) {
+                        records.put(child, ((g + 1) << MOVE_BITS) | moves[m]);
+                        // An inconsistent heuristic can lower f; never let the scan go back
+                        push(buckets, Math.max(f, g + 1 + h), child, g + 1);
+                        open++;
+                    }
+                } else {
+                    metrics.pruned(1);
+                }
+                board.undo(moves[m]);
+            }
+            metrics.frontier(open);
+            metrics.visited(records.size());
+            checkpoint();
+        }
+        return null;
+    }
+
+    private static void push(List<LongArrayList> buckets, int f, long key, int g) {
+        while (buckets.size() <= f) {
+            buckets.add(new LongArrayList());
+        }
+        LongArrayList bucket = buckets.get(f);
+        bucket.add(key);
+        bucket.add(g);
+    }
+
+    /** Follows the recorded moves from the board's current state back to the start. */
+    private static List<Move> tracePath(BitBoard board, LongIntHashMap records, long start) {
+        List<Move> path = new ArrayList<>();
+        while (board.getKey() != start) {
+            int move = records.get(board.getKey()) & NO_MOVE;
+            path.add(board.toMove(move));
+            board.undo(move);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,112 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Depth-first search for any solution, not necessarily a short one.
+ * Moves one BitBoard in place with apply/undo and keeps the open path on an explicit stack of move
+ * lists, so deep searches cannot overflow the call stack and a state costs no allocation beyond the
+ * visited set. States already visited are skipped, which also keeps the search from cycling.
+ */
+public class Backtracker extends InstrumentedSolver {
+    private static final int INITIAL_DEPTH = 64;
+
+    private final boolean verbose;
+
+    private BitBoard board;
+    private int[][] moveBuffers; // moves of the open state at each depth
+    private int[] counts;
+    private int[] cursors; // next move to try at each depth
+    private int[] path;
+
+    public Backtracker(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    @Override
+    protected RushHourSolver search(RushHourSolver config) throws RushHourException {
+        if (config == null || !config.isValid()) {
+            return null;
+        }
+        if (config.isGoal()) {
+            solutionFound();
+            return config;
+        }
+
+        board = new BitBoard(config.rushHour);
+        moveBuffers = new int[INITIAL_DEPTH][];
+        counts = new int[INITIAL_DEPTH];
+        cursors = new int[INITIAL_DEPTH];
+        path = new int[INITIAL_DEPTH];
+        try {
+            LongHashSet visited = new LongHashSet();
+            visited.add(board.getKey());
+            expand(0, visited);
+            int depth = 0;
+            while (depth >= 0) {
+                if (cursors[depth] == counts[depth]) {
+                    // Every move from here was tried: back up one level
+                    if (--depth >= 0) {
+                        board.undo(path[depth]);
+                    }
+                    continue;
+                }
+                int move = moveBuffers[depth][cursors[depth]++];
+                board.apply(move);
+                if (!visited.add(board.getKey())) {
+                    metrics.pruned(1);
+                    board.undo(move);
+                    continue;
+                }
+                path[depth++] = move;
+                if (board.isGoal()) {
+                    solutionFound();
+                    return config.followedBy(pathMoves(depth));
+                }
+                expand(depth, visited);
+            }
+            return null;
+        } finally {
+            board = null;
+            moveBuffers = null;
+            counts = null;
+            cursors = null;
+            path = null;
+        }
+    }
+
+    /** Generates the moves of the board's state as the open state at {@code depth}. */
+    private void expand(int depth, LongHashSet visited) throws RushHourException {
+        if (depth == path.length) {
+            int grown = depth * 2;
+            moveBuffers = Arrays.copyOf(moveBuffers, grown);
+            counts = Arrays.copyOf(counts, grown);
+            cursors = Arrays.copyOf(cursors, grown);
+            path = Arrays.copyOf(path, grown);
+        }
+        if (moveBuffers[depth] == null) {
+            moveBuffers[depth] = new int[board.maxMoves(metric)];
+        }
+        counts[depth] = board.generateMoves(moveBuffers[depth], metric);
+        cursors[depth] = 0;
+        metrics.expanded(1);
+        metrics.generated(counts[depth]);
+        metrics.frontier(depth + 1);
+        metrics.visited(visited.size());
+        checkpoint();
+        if (verbose) {
+            System.out.println("Current moves: " + pathMoves(depth));
+            System.out.println(board.toRushHour());
+        }
+    }
+
+    private List<Move> pathMoves(int depth) {
+        List<Move> moves = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            moves.add(board.toMove(path[i]));
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,157 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Breadth-first search from both ends: forward from the start and backward from every goal
+ * placement the start's lanes allow (see BitBoard.goalPlacements). Each round expands a whole
+ * layer of whichever frontier is smaller, so where the layers widen with depth the sides meet
+ * near the middle of the solution, each storing far fewer states than a one-sided search.
+ * Always returns a minimum-move solution.
+ */
+public class BidirectionalBreadthFirstSolver extends InstrumentedSolver {
+    private static final int ROOT = -1; // the start and the goals were not reached by a move
+
+    @Override
+    protected RushHourSolver search(RushHourSolver config) throws RushHourException {
+        if (config == null || !config.isValid()) {
+            return null;
+        }
+        if (config.isGoal()) {
+            return config;
+        }
+
+        BitBoard board = new BitBoard(config.rushHour);
+        int[] moves = new int[board.maxMoves(metric)];
+
+        // Each side maps its states to the move that reached them from that side's roots
+        LongIntHashMap forward = new LongIntHashMap();
+        LongIntHashMap backward = new LongIntHashMap();
+        LongArrayList forwardFrontier = new LongArrayList();
+        LongArrayList backwardFrontier = null; // until the goals are few enough to start from
+        long start = board.getKey();
+        forward.put(start, ROOT);
+        forwardFrontier.add(start);
+        int nextSeeding = 1;
+
+        while (!forwardFrontier.isEmpty() && (backwardFrontier == null || !backwardFrontier.isEmpty())) {
+            // Loose lanes allow far more goal placements than the start can reach, so the backward
+            // side only starts once its first layer would be no larger than the forward frontier
+            if (backwardFrontier == null && forwardFrontier.size() >= nextSeeding) {
+                backwardFrontier = seedGoals(board, forwardFrontier.size(), backward);
+                nextSeeding = 2 * forwardFrontier.size();
+                metrics.visited(forward.size() + backward.size());
+            }
+            boolean forwards = backwardFrontier == null || forwardFrontier.size() <= backwardFrontier.size();
+            LongIntHashMap own = forwards ? forward : backward;
+            LongIntHashMap other = forwards ? backward : forward;
+            LongArrayList frontier = forwards ? forwardFrontier : backwardFrontier;
+            LongArrayList next = new LongArrayList(frontier.size() * 2);
+            // Before this layer every path was longer than both depths together, so every meeting
+            // in it closes a shortest path; the smallest key keeps the answer deterministic
+            long meeting = LongHashSet.EMPTY;
+            metrics.frontier(forwardFrontier.size() + (backwardFrontier == null ? 0 : backwardFrontier.size()));
+            for (int i = 0; i < frontier.size(); i++) {
+                board.load(frontier.get(i));
+                int count = board.generateMoves(moves, metric);
+                metrics.expanded(1);
+                metrics.generated(count);
+                for (int m = 0; m < count; m++) {
+                    board.apply(moves[m]);
+                    long key = board.getKey();
+                    if (!forwards && board.isGoal()) {
+                        metrics.pruned(1);
+                    } else if (own.putIfAbsent(key, moves[m])) {
+                        next.add(key);
+                        boolean meets = backwardFrontier == null ? board.isGoal() : other.containsKey(key);
+                        if (meets && (meeting == LongHashSet.EMPTY || key < meeting)) {
+                            meeting = key;
+                        }
+                    } else {
+                        metrics.pruned(1);
+                    }
+                    board.undo(moves[m]);
+                }
+                metrics.visited(forward.size() + backward.size());
+                checkpoint();
+            }
+            if (meeting != LongHashSet.EMPTY) {
+                solutionFound();
+                return config.followedBy(stitch(board, forward, backward, meeting));
+            }
+            if (forwards) {
+                forwardFrontier = next;
+            } else {
+                backwardFrontier = next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Enters the goals the red car can leave into {@code backward} and returns them, or null when
+     * there are more than {@code limit} goal placements. A path from the start enters the goals
+     * through one of those, so the backward side never needs the rest and never steps back among them.
+     */
+    private static LongArrayList seedGoals(BitBoard board, int limit, LongIntHashMap backward) {
+        LongArrayList goals = new LongArrayList();
+        if (!board.goalPlacements(goals, limit)) {
+            return null;
+        }
+        LongArrayList seeds = new LongArrayList(goals.size());
+        for (int i = 0; i < goals.size(); i++) {
+            board.load(goals.get(i));
+            if (redCanLeave(board)) {
+                backward.put(goals.get(i), ROOT);
+                seeds.add(goals.get(i));
+            }
+        }
+        return seeds;
+    }
+
+    /** Whether the red car, standing on the exit, can slide off it in either direction. */
+    private static boolean redCanLeave(BitBoard board) {
+        int red = board.getRedIndex();
+        for (Direction direction : board.isHorizontal(red)
+                ? new Direction[] {Direction.LEFT, Direction.RIGHT} : new Direction[] {Direction.UP, Direction.DOWN}) {
+            int distance = 0;
+            while (board.isGoal() && board.canMove(red, direction)) {
+                board.move(red, direction);
+                distance++;
+            }
+            boolean left = !board.isGoal();
+            if (distance > 0) {
+                board.move(red, BitBoard.opposite(direction), distance);
+            }
+            if (left) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Joins the path from the start to {@code meeting} with the path on from there to a goal. */
+    private static List<Move> stitch(BitBoard board, LongIntHashMap forward, LongIntHashMap backward,
+                                     long meeting) {
+        List<Move> path = new ArrayList<>();
+        board.load(meeting);
+        for (int move = forward.get(meeting); move != ROOT; move = forward.get(board.getKey())) {
+            path.add(board.toMove(move));
+            board.undo(move);
+        }
+        Collections.reverse(path);
+
+        // The backward side moved away from the goals, so its moves are walked in reverse; a goal
+        // the forward side found before the backward side started is not on it at all
+        board.load(meeting);
+        for (int move = backward.get(meeting); move >= 0; move = backward.get(board.getKey())) {
+            int vehicle = BitBoard.moveVehicle(move);
+            Direction towardsGoal = BitBoard.opposite(BitBoard.moveDirection(move));
+            path.add(board.toMove(BitBoard.encodeMove(vehicle, towardsGoal, BitBoard.moveDistance(move))));
+            board.undo(move);
+        }
+        return path;
+    }
+}
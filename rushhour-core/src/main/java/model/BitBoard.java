@@ -0,0 +1,631 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bitboard form of an N x N RushHour board (N up to MAX_SIZE) for the solvers.
+ * Occupancy is a bit set over the cells in row-major order, spread over as many longs as the board
+ * needs: one up to 8x8, two for 10x10. Lane position p of vehicle i is cell base + p * step (step 1
+ * along a row, N down a column), so checking the cell in front of a vehicle is one bit test and a
+ * one-cell move flips two bits, whatever the board size or the vehicle's orientation.
+ * The state key gives each vehicle just enough bits for the positions of its lane.
+ */
+public class BitBoard {
+    public static final int MAX_SIZE = 16;
+    public static final int MAX_VEHICLES = 63; // vehiclesAt reports vehicles as bits of a long
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final long UNPLACED = -1L; // key of a board whose cells must be rebuilt on load
+
+    // Fixed for a vehicle set and shared by copies; kept in fields of their own for the hot paths
+    private final Layout layout;
+    private final int size;
+    private final boolean[] horizontal;
+    private final int[] lengths;
+    private final int[] lanes;
+    private final int[] shifts;
+    private final int[] bases; // cell of lane position 0
+    private final int[] steps; // cells between neighbouring lane positions
+
+    private final int[] offsets;
+    private final long[] cells;
+    private long key;
+
+    public BitBoard(RushHour rushHour) throws RushHourException {
+        this(Layout.of(rushHour.getSize(), rushHour.getExit(), rushHour.getVehicles()));
+        List<Vehicle> vehicles = rushHour.getVehicles();
+        for (int i = 0; i < vehicles.size(); i++) {
+            Vehicle v = vehicles.get(i);
+            int offset = horizontal[i]
+                ? Math.min(v.getBack().getCol(), v.getFront().getCol())
+                : Math.min(v.getBack().getRow(), v.getFront().getRow());
+            if (covered(i, offset)) {
+                throw new RushHourException("Vehicle " + v.getId() + " overlaps another vehicle.");
+            }
+            place(i, offset);
+            key |= (long) offset << shifts[i];
+        }
+    }
+
+    /**
+     * Board for a vehicle set given lane by lane, every vehicle at the start of its lane.
+     * The vehicles may overlap there; callers {@link #load} a real state before using it.
+     */
+    BitBoard(int size, Position exit, char[] ids, boolean[] horizontal, int[] lengths, int[] lanes)
+            throws RushHourException {
+        this(new Layout(size, exit, ids.clone(), horizontal.clone(), lengths.clone(), lanes.clone()));
+        for (int i = 0; i < ids.length; i++) {
+            place(i, 0);
+        }
+        key = UNPLACED;
+    }
+
+    private BitBoard(Layout layout) {
+        this.layout = layout;
+        this.size = layout.size;
+        this.horizontal = layout.horizontal;
+        this.lengths = layout.lengths;
+        this.lanes = layout.lanes;
+        this.shifts = layout.shifts;
+        this.bases = layout.bases;
+        this.steps = layout.steps;
+        this.offsets = new int[layout.ids.length];
+        this.cells = new long[(size * size + 63) >>> 6];
+    }
+
+    public BitBoard(BitBoard other) {
+        this.layout = other.layout;
+        this.size = other.size;
+        this.horizontal = other.horizontal;
+        this.lengths = other.lengths;
+        this.lanes = other.lanes;
+        this.shifts = other.shifts;
+        this.bases = other.bases;
+        this.steps = other.steps;
+        this.offsets = other.offsets.clone();
+        this.cells = other.cells.clone();
+        this.key = other.key;
+    }
+
+    /** Bits of the lane positions vehicle i covers with its back at {@code offset}. */
+    private int laneBits(int index, int offset) {
+        return ((1 << lengths[index]) - 1) << offset;
+    }
+
+    private boolean isFree(int index, int position) {
+        int cell = bases[index] + position * steps[index];
+        return (cells[cell >>> 6] & 1L << cell) == 0;
+    }
+
+    private void flip(int index, int position) {
+        int cell = bases[index] + position * steps[index];
+        cells[cell >>> 6] ^= 1L << cell;
+    }
+
+    /** True when any cell vehicle i would cover at {@code offset} is taken. */
+    private boolean covered(int index, int offset) {
+        for (int p = offset; p < offset + lengths[index]; p++) {
+            if (!isFree(index, p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Covers or frees the lane positions of vehicle i in {@code positions} (bit p for position p). */
+    private void toggle(int index, int positions) {
+        for (; positions != 0; positions &= positions - 1) {
+            flip(index, Integer.numberOfTrailingZeros(positions));
+        }
+    }
+
+    private void place(int index, int offset) {
+        toggle(index, laneBits(index, offset));
+        offsets[index] = offset;
+    }
+
+    /** Packed state of this board, see StateCodec. */
+    public long getKey() {
+        return key;
+    }
+
+    /** Bits the keys of this vehicle set use; the higher ones are always clear. */
+    public int getKeyBits() {
+        return layout.keyBits;
+    }
+
+    /** Moves every vehicle to the lane position recorded in {@code key}. */
+    public void load(long key) {
+        // Search neighbours share most positions, so only vehicles that moved are redrawn; all of
+        // them are lifted first, as one may be moving into a cell another is leaving
+        long changed = key ^ this.key;
+        if (this.key == UNPLACED) {
+            Arrays.fill(cells, 0);
+            changed = -1L;
+        } else {
+            for (int i = 0; i < offsets.length; i++) {
+                if ((changed >>> shifts[i] & layout.offsetMasks[i]) != 0) {
+                    toggle(i, laneBits(i, offsets[i]));
+                }
+            }
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            if ((changed >>> shifts[i] & layout.offsetMasks[i]) != 0) {
+                place(i, offset(key, i));
+            }
+        }
+        this.key = key;
+    }
+
+    /** Vehicle i's lane position in a key of this board's vehicle set. */
+    public int offset(long key, int index) {
+        return (int) (key >>> shifts[index]) & layout.offsetMasks[index];
+    }
+
+    /** {@code key} with vehicle i moved to lane position {@code offset}. */
+    public long withOffset(long key, int index, int offset) {
+        return key & ~((long) layout.offsetMasks[index] << shifts[index]) | (long) offset << shifts[index];
+    }
+
+    /** Position of the vehicle's back along its lane: a column if horizontal, a row if vertical. */
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getExitRow() {
+        return layout.exitRow;
+    }
+
+    public int getExitCol() {
+        return layout.exitCol;
+    }
+
+    public int getVehicleCount() {
+        return offsets.length;
+    }
+
+    public char getId(int index) {
+        return layout.ids[index];
+    }
+
+    public int indexOf(char id) {
+        for (int i = 0; i < layout.ids.length; i++) {
+            if (layout.ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isHorizontal(int index) {
+        return horizontal[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    /** Row of a horizontal vehicle, or column of a vertical one. */
+    public int getLane(int index) {
+        return lanes[index];
+    }
+
+    /** Number of lane positions the vehicle's back can take. */
+    public int getLanePositions(int index) {
+        return size - lengths[index] + 1;
+    }
+
+    /** True when both boards have the same size, exit and vehicles in the same order and lanes, so their keys agree. */
+    public boolean sameVehicles(BitBoard other) {
+        return layout == other.layout || layout.sameAs(other.layout);
+    }
+
+    public boolean isOccupied(int row, int col) {
+        int cell = row * size + col;
+        return (cells[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    /**
+     * The other vehicles covering a cell of vehicle i's lane between lane positions {@code from}
+     * and {@code to} inclusive; bit j is set for vehicle j.
+     */
+    public long vehiclesAt(int index, int from, int to) {
+        int range = ((1 << (to - from + 1)) - 1) << from;
+        int lane = lanes[index];
+        boolean taken = false;
+        for (int p = range & ~laneBits(index, offsets[index]); p != 0 && !taken; p &= p - 1) {
+            taken = !isFree(index, Integer.numberOfTrailingZeros(p));
+        }
+        if (!taken) {
+            return 0;
+        }
+        long found = 0;
+        for (int j = 0; j < offsets.length; j++) {
+            if (j == index) {
+                continue;
+            }
+            boolean covers;
+            if (horizontal[j] == horizontal[index]) {
+                covers = lanes[j] == lane && (laneBits(j, offsets[j]) & range) != 0;
+            } else {
+                // A crossing vehicle covers position lanes[j] of this lane if it spans our lane
+                covers = (range & (1 << lanes[j])) != 0 && offsets[j] <= lane && lane < offsets[j] + lengths[j];
+            }
+            if (covers) {
+                found |= 1L << j;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Adds the key of every goal placement that keeps the vehicles of each lane in their current
+     * order. No vehicle can pass another in its lane, so no other goal is reachable from here.
+     */
+    void goalPlacements(LongArrayList out) {
+        goalPlacements(out, Integer.MAX_VALUE);
+    }
+
+    /** As above, but stops and returns false once more than {@code limit} placements were added. */
+    boolean goalPlacements(LongArrayList out, int limit) {
+        if (layout.redIndex < 0 || layout.goalMin > layout.goalMax) {
+            return true;
+        }
+        int n = offsets.length;
+        Integer[] sorted = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+        }
+        // Placing vehicles back to front puts each one after the vehicle behind it in its lane
+        Arrays.sort(sorted, (a, b) -> Integer.compare(offsets[a], offsets[b]));
+        int[] order = new int[n];
+        int[] behind = new int[n];
+        for (int t = 0; t < n; t++) {
+            int i = sorted[t];
+            order[t] = i;
+            behind[i] = -1;
+            for (int s = 0; s < t; s++) {
+                int j = sorted[s];
+                if (horizontal[j] == horizontal[i] && lanes[j] == lanes[i] && offsets[j] < offsets[i]) {
+                    behind[i] = j;
+                }
+            }
+        }
+        return placeGoals(order, behind, 0, 0L, new boolean[size * size], out, limit);
+    }
+
+    private boolean placeGoals(int[] order, int[] behind, int t, long key, boolean[] taken, LongArrayList out,
+                               int limit) {
+        if (t == order.length) {
+            out.add(key);
+            return out.size() <= limit;
+        }
+        int i = order[t];
+        int from = behind[i] < 0 ? 0 : offset(key, behind[i]) + lengths[behind[i]];
+        int to = size - lengths[i];
+        if (i == layout.redIndex) {
+            from = Math.max(from, layout.goalMin);
+            to = Math.min(to, layout.goalMax);
+        }
+        for (int offset = from; offset <= to; offset++) {
+            int first = bases[i] + offset * steps[i];
+            int last = first + (lengths[i] - 1) * steps[i];
+            boolean free = true;
+            for (int cell = first; cell <= last && free; cell += steps[i]) {
+                free = !taken[cell];
+            }
+            if (free) {
+                for (int cell = first; cell <= last; cell += steps[i]) {
+                    taken[cell] = true;
+                }
+                boolean complete = placeGoals(order, behind, t + 1, withOffset(key, i, offset), taken, out, limit);
+                for (int cell = first; cell <= last; cell += steps[i]) {
+                    taken[cell] = false;
+                }
+                if (!complete) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public int getRedIndex() {
+        return layout.redIndex;
+    }
+
+    /** Cells the red car still has to slide to cover the exit, or -1 when it never can. */
+    public int getRedDistance() {
+        int red = layout.redIndex;
+        if (red < 0 || layout.goalMin > layout.goalMax) {
+            return -1;
+        }
+        int offset = offsets[red];
+        if (offset < layout.goalMin) {
+            return layout.goalMin - offset;
+        }
+        return offset > layout.goalMax ? offset - layout.goalMax : 0;
+    }
+
+    /** Lane positions the red car has yet to sweep on its way to the exit (bit p for position p). */
+    public int getRedPath() {
+        int distance = getRedDistance();
+        if (distance <= 0) {
+            return 0;
+        }
+        int red = layout.redIndex;
+        int from = offsets[red] < layout.goalMin ? offsets[red] + lengths[red] : offsets[red] - distance;
+        return ((1 << distance) - 1) << from;
+    }
+
+    public boolean isGoal() {
+        int red = layout.redIndex;
+        return red >= 0 && offsets[red] >= layout.goalMin && offsets[red] <= layout.goalMax;
+    }
+
+    public boolean canMove(int index, Direction direction) {
+        // Only the cell the vehicle slides into can collide
+        switch (direction) {
+            case LEFT:
+            case UP:
+                if (horizontal[index] != (direction == Direction.LEFT)) return false;
+                return offsets[index] > 0 && isFree(index, offsets[index] - 1);
+            default:
+                if (horizontal[index] != (direction == Direction.RIGHT)) return false;
+                int ahead = offsets[index] + lengths[index];
+                return ahead < size && isFree(index, ahead);
+        }
+    }
+
+    /** Moves a vehicle one cell; the caller must have checked canMove. */
+    public void move(int index, Direction direction) {
+        move(index, direction, 1);
+    }
+
+    /** Slides a vehicle {@code distance} cells; every cell on the way must be free. */
+    public void move(int index, Direction direction, int distance) {
+        slide(index, direction == Direction.LEFT || direction == Direction.UP ? -distance : distance);
+    }
+
+    /** Moves vehicle i {@code delta} positions along its lane, towards the end of it if positive. */
+    private void slide(int index, int delta) {
+        int from = offsets[index];
+        // Only the cells the vehicle left or entered change; a one-cell move is the common case
+        if (delta == 1) {
+            flip(index, from);
+            flip(index, from + lengths[index]);
+        } else if (delta == -1) {
+            flip(index, from - 1);
+            flip(index, from + lengths[index] - 1);
+        } else {
+            int vehicle = laneBits(index, 0);
+            toggle(index, vehicle << from ^ vehicle << from + delta);
+        }
+        offsets[index] = from + delta;
+        key += (long) delta << shifts[index];
+    }
+
+    /** Room generateMoves needs in its buffer for this board's vehicles under {@code metric}. */
+    public int maxMoves(MoveMetric metric) {
+        if (metric == MoveMetric.CELLS) {
+            return 2 * offsets.length;
+        }
+        // From any position a vehicle can reach every other position of its lane in one slide
+        int slides = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            slides += getLanePositions(i) - 1;
+        }
+        return slides;
+    }
+
+    /**
+     * Writes every legal move under {@code metric} into {@code buffer} (see encodeMove) and returns
+     * how many were written: one-cell steps for CELLS, every free slide distance for SLIDES.
+     */
+    public int generateMoves(int[] buffer, MoveMetric metric) {
+        if (metric == MoveMetric.CELLS) {
+            return generateMoves(buffer);
+        }
+        int count = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            Direction back = horizontal[i] ? Direction.LEFT : Direction.UP;
+            Direction forward = horizontal[i] ? Direction.RIGHT : Direction.DOWN;
+            for (int p = offsets[i] - 1; p >= 0 && isFree(i, p); p--) {
+                buffer[count++] = encodeMove(i, back, offsets[i] - p);
+            }
+            int ahead = offsets[i] + lengths[i];
+            for (int p = ahead; p < size && isFree(i, p); p++) {
+                buffer[count++] = encodeMove(i, forward, p - ahead + 1);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes every legal one-cell move into {@code buffer} (see encodeMove) and returns how many
+     * were written. The buffer needs room for two moves per vehicle.
+     */
+    public int generateMoves(int[] buffer) {
+        int count = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            // Direction ordinals: UP 0, DOWN 1, LEFT 2, RIGHT 3
+            int back = horizontal[i] ? 2 : 0;
+            if (offsets[i] > 0 && isFree(i, offsets[i] - 1)) {
+                buffer[count++] = encodeMove(i, DIRECTIONS[back]);
+            }
+            int ahead = offsets[i] + lengths[i];
+            if (ahead < size && isFree(i, ahead)) {
+                buffer[count++] = encodeMove(i, DIRECTIONS[back + 1]);
+            }
+        }
+        return count;
+    }
+
+    // UP and LEFT, the even ordinals, move towards the start of the lane
+    public void apply(int move) {
+        int distance = moveDistance(move);
+        slide(moveVehicle(move), (move & 1) == 0 ? -distance : distance);
+    }
+
+    public void undo(int move) {
+        int distance = moveDistance(move);
+        slide(moveVehicle(move), (move & 1) == 0 ? distance : -distance);
+    }
+
+    public Move toMove(int move) {
+        return new Move(layout.ids[moveVehicle(move)], moveDirection(move), moveDistance(move));
+    }
+
+    public static int encodeMove(int index, Direction direction) {
+        return encodeMove(index, direction, 1);
+    }
+
+    /**
+     * Packs a move as {@code index << 6 | (distance - 1) << 2 | direction.ordinal()}, so a
+     * one-cell step keeps the distance bits zero. Slides of up to 16 cells fit.
+     */
+    public static int encodeMove(int index, Direction direction, int distance) {
+        return (index << 6) | ((distance - 1) << 2) | direction.ordinal();
+    }
+
+    public static int moveVehicle(int move) {
+        return move >>> 6;
+    }
+
+    public static int moveDistance(int move) {
+        return ((move >>> 2) & 15) + 1;
+    }
+
+    public static Direction moveDirection(int move) {
+        return DIRECTIONS[move & 3];
+    }
+
+    public static Direction opposite(Direction direction) {
+        switch (direction) {
+            case UP:
+                return Direction.DOWN;
+            case DOWN:
+                return Direction.UP;
+            case LEFT:
+                return Direction.RIGHT;
+            default:
+                return Direction.LEFT;
+        }
+    }
+
+    /** Builds a RushHour with the same size, exit and vehicles at this board's positions. */
+    public RushHour toRushHour() throws RushHourException {
+        RushHour rushHour = new RushHour(size, new Position(layout.exitRow, layout.exitCol));
+        for (int i = 0; i < offsets.length; i++) {
+            int first = offsets[i];
+            int last = first + lengths[i] - 1;
+            rushHour.addVehicle(horizontal[i]
+                ? new Vehicle(layout.ids[i], new Position(lanes[i], first), new Position(lanes[i], last))
+                : new Vehicle(layout.ids[i], new Position(first, lanes[i]), new Position(last, lanes[i])));
+        }
+        return rushHour;
+    }
+
+    /** Board size, exit and vehicle set: everything about a board that no move changes. */
+    private static final class Layout {
+        final int size;
+        final int exitRow;
+        final int exitCol;
+        final char[] ids;
+        final boolean[] horizontal;
+        final int[] lengths;
+        final int[] lanes;
+        final int[] shifts; // where each vehicle's lane position starts in the key
+        final int[] offsetMasks;
+        final int[] bases;
+        final int[] steps;
+        final int redIndex;
+        final int keyBits; // bits a key uses; the ones above are always clear
+        final int goalMin; // red car lane positions that cover the exit; none if goalMin > goalMax
+        final int goalMax;
+
+        static Layout of(int size, Position exit, List<Vehicle> vehicles) throws RushHourException {
+            int count = vehicles.size();
+            char[] ids = new char[count];
+            boolean[] horizontal = new boolean[count];
+            int[] lengths = new int[count];
+            int[] lanes = new int[count];
+            for (int i = 0; i < count; i++) {
+                Vehicle v = vehicles.get(i);
+                int minRow = Math.min(v.getBack().getRow(), v.getFront().getRow());
+                int maxRow = Math.max(v.getBack().getRow(), v.getFront().getRow());
+                int minCol = Math.min(v.getBack().getCol(), v.getFront().getCol());
+                int maxCol = Math.max(v.getBack().getCol(), v.getFront().getCol());
+                if (minRow < 0 || maxRow >= size || minCol < 0 || maxCol >= size) {
+                    throw new RushHourException("Vehicle " + v.getId() + " is off the board.");
+                }
+                ids[i] = v.getId();
+                horizontal[i] = v.isHorizontal();
+                lengths[i] = v.getLength();
+                lanes[i] = horizontal[i] ? minRow : minCol;
+            }
+            return new Layout(size, exit, ids, horizontal, lengths, lanes);
+        }
+
+        Layout(int size, Position exit, char[] ids, boolean[] horizontal, int[] lengths, int[] lanes)
+                throws RushHourException {
+            if (size < 2 || size > MAX_SIZE) {
+                throw new RushHourException("BitBoard supports boards up to " + MAX_SIZE + "x" + MAX_SIZE + ".");
+            }
+            if (ids.length > MAX_VEHICLES) {
+                throw new RushHourException("At most " + MAX_VEHICLES + " vehicles fit on a BitBoard.");
+            }
+            this.size = size;
+            this.exitRow = exit.getRow();
+            this.exitCol = exit.getCol();
+            this.ids = ids;
+            this.horizontal = horizontal;
+            this.lengths = lengths;
+            this.lanes = lanes;
+            this.shifts = new int[ids.length];
+            this.offsetMasks = new int[ids.length];
+            this.bases = new int[ids.length];
+            this.steps = new int[ids.length];
+            int shift = 0;
+            int red = -1;
+            for (int i = 0; i < ids.length; i++) {
+                int bits = 32 - Integer.numberOfLeadingZeros(size - lengths[i]);
+                shifts[i] = shift;
+                offsetMasks[i] = (1 << bits) - 1;
+                shift += bits;
+                bases[i] = horizontal[i] ? lanes[i] * size : lanes[i];
+                steps[i] = horizontal[i] ? 1 : size;
+                if (ids[i] == 'X') {
+                    red = i;
+                }
+            }
+            if (shift > 63) { // the sign bit stays clear, see LongHashSet.EMPTY
+                throw new RushHourException("Too many vehicles to fit a " + size + "x" + size + " state in a key.");
+            }
+            this.redIndex = red;
+            this.keyBits = shift;
+
+            // The red car reaches the goal when it covers the exit, moving towards that edge
+            boolean exitHorizontal = RushHour.isHorizontalExit(size, exit);
+            if (red >= 0 && horizontal[red] == exitHorizontal && lanes[red] == (exitHorizontal ? exitRow : exitCol)) {
+                int exitPosition = exitHorizontal ? exitCol : exitRow;
+                goalMin = Math.max(0, exitPosition - lengths[red] + 1);
+                goalMax = Math.min(exitPosition, size - lengths[red]);
+            } else {
+                goalMin = 1;
+                goalMax = 0;
+            }
+        }
+
+        boolean sameAs(Layout other) {
+            return size == other.size && exitRow == other.exitRow && exitCol == other.exitCol
+                && Arrays.equals(ids, other.ids) && Arrays.equals(horizontal, other.horizontal)
+                && Arrays.equals(lengths, other.lengths) && Arrays.equals(lanes, other.lanes);
+        }
+    }
+}
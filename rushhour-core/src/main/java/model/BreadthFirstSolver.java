@@ -0,0 +1,92 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongToIntFunction;
+
+/** Breadth-first search with a transposition table; always returns a minimum-move solution. */
+public class BreadthFirstSolver extends InstrumentedSolver {
+
+    @Override
+    protected RushHourSolver search(RushHourSolver config) throws RushHourException {
+        if (config == null || !config.isValid()) {
+            return null;
+        }
+        if (config.isGoal()) {
+            return config;
+        }
+
+        BitBoard board = new BitBoard(config.rushHour);
+        int[] moves = new int[board.maxMoves(metric)];
+
+        // Each visited state stores its depth mod 3, which is enough to walk back to the start
+        PackedDepthMap depths = new PackedDepthMap(board.getKeyBits());
+        long start = board.getKey();
+        depths.putIfAbsent(start, 0);
+        LongArrayList frontier = new LongArrayList();
+        frontier.add(start);
+
+        for (int depth = 1; !frontier.isEmpty(); depth++) {
+            LongArrayList next = new LongArrayList(frontier.size() * 2);
+            long goal = LongHashSet.EMPTY;
+            metrics.frontier(frontier.size());
+            for (int i = 0; i < frontier.size(); i++) {
+                board.load(frontier.get(i));
+                int count = board.generateMoves(moves, metric);
+                metrics.expanded(1);
+                metrics.generated(count);
+                for (int m = 0; m < count; m++) {
+                    board.apply(moves[m]);
+                    long key = board.getKey();
+                    if (depths.putIfAbsent(key, depth % 3)) {
+                        next.add(key);
+                        // Keep the smallest goal key of the layer so the answer is deterministic
+                        if (board.isGoal() && (goal == LongHashSet.EMPTY || key < goal)) {
+                            goal = key;
+                        }
+                    } else {
+                        metrics.pruned(1);
+                    }
+                    board.undo(moves[m]);
+                }
+                metrics.visited(depths.size());
+                checkpoint();
+            }
+            if (goal != LongHashSet.EMPTY) {
+                solutionFound();
+                return config.followedBy(tracePath(board, metric, depths::get, goal, depth));
+            }
+            frontier = next;
+        }
+        return null;
+    }
+
+    /**
+     * Walks from {@code goal} back to the depth-0 state. Neighbouring states differ in depth by
+     * at most one, so the neighbour labelled (d - 1) mod 3 is always one step closer to the start.
+     * Neighbours are tried in move-generation order, which makes the path deterministic.
+     */
+    static List<Move> tracePath(BitBoard template, MoveMetric metric, LongToIntFunction depths, long goal,
+                                int depth) {
+        BitBoard board = new BitBoard(template);
+        Move[] path = new Move[depth];
+        int[] moves = new int[board.maxMoves(metric)];
+        board.load(goal);
+        for (int d = depth; d > 0; d--) {
+            int wanted = (d - 1) % 3;
+            int count = board.generateMoves(moves, metric);
+            for (int m = 0; m < count; m++) {
+                board.apply(moves[m]);
+                if (depths.applyAsInt(board.getKey()) == wanted) {
+                    // Stepping back with this move means the forward move went the other way
+                    int vehicle = BitBoard.moveVehicle(moves[m]);
+                    Direction forward = BitBoard.opposite(BitBoard.moveDirection(moves[m]));
+                    path[d - 1] = new Move(board.getId(vehicle), forward, BitBoard.moveDistance(moves[m]));
+                    break;
+                }
+                board.undo(moves[m]);
+            }
+        }
+        return Arrays.asList(path);
+    }
+}
@@ -0,0 +1,60 @@
+package model;
+
+/**
+ * Answers from a SolutionCache when it can and otherwise asks another engine, recording the
+ * result for next time. "No solution" is recorded only from complete engines; a solve cut short
+ * by SearchLimits throws and records nothing. The cache holds whatever the engine returns,
+ * so its suffixes are optimal only when the engine's solutions are.
+ */
+public class CachingSolver implements SolverEngine {
+    private final SolutionCache cache;
+    private final SolverEngine engine;
+    private long nodesExpanded;
+
+    public CachingSolver(SolutionCache cache, SolverEngine engine) {
+        this.cache = cache;
+        this.engine = engine;
+    }
+
+    @Override
+    public RushHourSolver solve(RushHourSolver config) throws RushHourException {
+        nodesExpanded = 0;
+        if (config == null || !config.isValid()) {
+            return engine.solve(config);
+        }
+        MoveMetric metric = engine.getMetric();
+        SolutionCache.Suffix cached = cache.lookup(config.rushHour, metric);
+        if (cached != null) {
+            return cached.isSolvable() ? config.followedBy(cached.moves()) : null;
+        }
+
+        RushHourSolver solved = engine.solve(config);
+        nodesExpanded = engine.getNodesExpanded();
+        if (solved == null) {
+            if (engine.isComplete()) {
+                cache.putUnsolvable(config.rushHour, metric);
+            }
+        } else {
+            // the engine's result carries config's own moves in front of the new ones
+            int done = config.getMoves().size();
+            cache.put(config.rushHour, solved.getMoves().subList(done, solved.getMoves().size()), metric);
+        }
+        return solved;
+    }
+
+    @Override
+    public MoveMetric getMetric() {
+        return engine.getMetric();
+    }
+
+    @Override
+    public boolean isComplete() {
+        return engine.isComplete();
+    }
+
+    /** Zero after a cache hit. */
+    @Override
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+}
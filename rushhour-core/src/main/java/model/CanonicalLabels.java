@@ -0,0 +1,95 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renaming of a board's vehicles that depends only on where they are, so boards that differ just
+ * in which same-shaped vehicle got which id look the same to a SolutionCache or a PuzzleCorpus.
+ * Vehicles are ordered by orientation, lane and place in the lane and renamed A, B, C... in that
+ * order; the red car stays 'X'. Vehicles never pass each other in a lane, so the order is the same
+ * for every state reachable from the board and one renaming serves a whole solution path.
+ */
+final class CanonicalLabels {
+    static final String IDS = "ABCDEFGHIJKLMNOPQSTUVWYZabcdefghijklmnopqrstuvwxyz0123456789"; // no 'R' or 'X'
+    private static final char RED = 'X';
+
+    private final char[] original; // ids in canonical order
+    private final char[] canonical;
+    private final boolean identity;
+
+    private CanonicalLabels(char[] original, char[] canonical) {
+        this.original = original;
+        this.canonical = canonical;
+        boolean same = true;
+        for (int i = 0; i < original.length && same; i++) {
+            same = original[i] == canonical[i];
+        }
+        this.identity = same;
+    }
+
+    static CanonicalLabels of(RushHour rushHour) {
+        List<Vehicle> vehicles = new ArrayList<>(rushHour.getVehicles());
+        vehicles.sort((a, b) -> {
+            if (a.isHorizontal() != b.isHorizontal()) {
+                return a.isHorizontal() ? -1 : 1;
+            }
+            int byLane = Integer.compare(lane(a), lane(b));
+            return byLane != 0 ? byLane : Integer.compare(place(a), place(b));
+        });
+        char[] original = new char[vehicles.size()];
+        char[] canonical = new char[vehicles.size()];
+        int next = 0;
+        for (int i = 0; i < original.length; i++) {
+            original[i] = vehicles.get(i).getId();
+            canonical[i] = original[i] == RED ? RED : label(next++);
+        }
+        return new CanonicalLabels(original, canonical);
+    }
+
+    /** Past the end of IDS, labels go on with the characters above Latin-1. */
+    private static char label(int index) {
+        return index < IDS.length() ? IDS.charAt(index) : (char) (0x100 + index - IDS.length());
+    }
+
+    private static int lane(Vehicle v) {
+        return v.isHorizontal() ? v.getBack().getRow() : v.getBack().getCol();
+    }
+
+    private static int place(Vehicle v) {
+        return v.isHorizontal()
+            ? Math.min(v.getBack().getCol(), v.getFront().getCol())
+            : Math.min(v.getBack().getRow(), v.getFront().getRow());
+    }
+
+    /** True when every vehicle keeps its own id. */
+    boolean isIdentity() {
+        return identity;
+    }
+
+    char toCanonical(char id) {
+        return translate(id, original, canonical);
+    }
+
+    char toOriginal(char id) {
+        return translate(id, canonical, original);
+    }
+
+    Move toCanonical(Move move) {
+        return identity ? move : new Move(toCanonical(move.getVehicleId()), move.getDirection(), move.getDistance());
+    }
+
+    Move toOriginal(Move move) {
+        return identity ? move : new Move(toOriginal(move.getVehicleId()), move.getDirection(), move.getDistance());
+    }
+
+    /** Ids the board does not have are left as they are. */
+    private static char translate(char id, char[] from, char[] to) {
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] == id) {
+                return to[i];
+            }
+        }
+        return id;
+    }
+}
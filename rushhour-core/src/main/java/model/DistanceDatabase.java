@@ -0,0 +1,364 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exact distance to the goal for every configuration of one vehicle set.
+ * Vehicles never leave their lane, so a configuration is the back offset of each vehicle and
+ * indexes a table directly (offsets read as digits of a mixed-radix number). The table is filled
+ * once by a backward breadth-first search from every goal placement, written to a file and
+ * memory-mapped again later, after which solvability, remaining moves and the best next move
+ * are lookups instead of searches.
+ *
+ * File layout (big-endian): magic "RHDB", version short, board size byte, exit row and column
+ * bytes, vehicle count byte, then per vehicle
+ * its id char, horizontal byte, length byte and lane byte, then the maximum distance byte,
+ * the entry count int and one unsigned distance byte per entry (0xFF when unsolvable or illegal).
+ */
+public class DistanceDatabase {
+    public static final int UNREACHABLE = -1;
+
+    private static final int MAGIC = 0x52484442; // "RHDB"
+    private static final short VERSION = 2;
+    private static final int NO_DISTANCE = 0xFF;
+    private static final int MAX_DISTANCE = NO_DISTANCE - 1;
+    private static final int MAX_ENTRIES = Integer.MAX_VALUE - 8; // largest byte[] the builder can fill
+
+    private final BitBoard template; // vehicle set in table order, never moved
+    private final int[] strides;
+    private final int entries;
+    private final int maxDistance;
+    private final ByteBuffer distances;
+
+    private DistanceDatabase(BitBoard template, int maxDistance, ByteBuffer distances) {
+        this.template = template;
+        this.strides = strides(template);
+        this.entries = distances.capacity();
+        this.maxDistance = maxDistance;
+        this.distances = distances;
+    }
+
+    /** Computes the table for the vehicle set of {@code puzzle}; vehicle positions are ignored. */
+    public static DistanceDatabase build(RushHour puzzle) throws RushHourException {
+        BitBoard board = new BitBoard(puzzle);
+        int red = board.getRedIndex();
+        if (red < 0 || board.getRedDistance() < 0) {
+            throw new RushHourException("The red car must lie in line with the exit.");
+        }
+        int[] strides = strides(board);
+        byte[] table = new byte[entries(board)];
+        Arrays.fill(table, (byte) NO_DISTANCE);
+
+        // Layer 0 is every legal placement with the red car covering the exit
+        LongArrayList frontier = new LongArrayList();
+        int exit = board.isHorizontal(red) ? board.getExitCol() : board.getExitRow();
+        boolean[] occupied = new boolean[board.getSize() * board.getSize()];
+        for (int offset = 0; offset < board.getLanePositions(red); offset++) {
+            if (offset <= exit && exit < offset + board.getLength(red)) {
+                mark(board, red, offset, occupied, true);
+                placeGoals(board, red, 0, board.withOffset(0, red, offset), occupied, frontier);
+                mark(board, red, offset, occupied, false);
+            }
+        }
+        for (int i = 0; i < frontier.size(); i++) {
+            table[index(board, frontier.get(i), strides)] = 0;
+        }
+
+        // Moves are reversible, so expanding forward from the goals walks the backward graph
+        LongArrayList next = new LongArrayList();
+        int[] moves = new int[2 * board.getVehicleCount()];
+        int depth = 0;
+        while (!frontier.isEmpty()) {
+            if (depth == MAX_DISTANCE) {
+                throw new RushHourException("Distances above " + MAX_DISTANCE + " do not fit in the table.");
+            }
+            for (int i = 0; i < frontier.size(); i++) {
+                board.load(frontier.get(i));
+                int count = board.generateMoves(moves);
+                for (int m = 0; m < count; m++) {
+                    board.apply(moves[m]);
+                    long key = board.getKey();
+                    int index = index(board, key, strides);
+                    if (table[index] == (byte) NO_DISTANCE) {
+                        table[index] = (byte) (depth + 1);
+                        next.add(key);
+                    }
+                    board.undo(moves[m]);
+                }
+            }
+            if (!next.isEmpty()) {
+                depth++;
+            }
+            LongArrayList swap = frontier;
+            frontier = next;
+            next = swap;
+            next.clear();
+        }
+        return new DistanceDatabase(board, depth, ByteBuffer.wrap(table));
+    }
+
+    /** Enumerates the legal placements of every vehicle but the red one, which stays fixed. */
+    private static void placeGoals(BitBoard board, int red, int index, long key, boolean[] occupied,
+                                   LongArrayList out) {
+        if (index == board.getVehicleCount()) {
+            out.add(key);
+            return;
+        }
+        if (index == red) {
+            placeGoals(board, red, index + 1, key, occupied, out);
+            return;
+        }
+        for (int offset = 0; offset < board.getLanePositions(index); offset++) {
+            if (isFree(board, index, offset, occupied)) {
+                mark(board, index, offset, occupied, true);
+                placeGoals(board, red, index + 1, board.withOffset(key, index, offset), occupied, out);
+                mark(board, index, offset, occupied, false);
+            }
+        }
+    }
+
+    /** Cell number (row * size + col) of lane position {@code position} in vehicle i's lane. */
+    private static int cell(BitBoard board, int index, int position) {
+        int lane = board.getLane(index);
+        return board.isHorizontal(index) ? lane * board.getSize() + position : position * board.getSize() + lane;
+    }
+
+    private static boolean isFree(BitBoard board, int index, int offset, boolean[] occupied) {
+        for (int p = offset; p < offset + board.getLength(index); p++) {
+            if (occupied[cell(board, index, p)]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void mark(BitBoard board, int index, int offset, boolean[] occupied, boolean covered) {
+        for (int p = offset; p < offset + board.getLength(index); p++) {
+            occupied[cell(board, index, p)] = covered;
+        }
+    }
+
+    private static int entries(BitBoard board) throws RushHourException {
+        long entries = 1;
+        for (int i = 0; i < board.getVehicleCount(); i++) {
+            entries *= board.getLanePositions(i);
+            if (entries > MAX_ENTRIES) {
+                throw new RushHourException("Too many vehicles for a distance table.");
+            }
+        }
+        return (int) entries;
+    }
+
+    private static int[] strides(BitBoard board) {
+        int[] strides = new int[board.getVehicleCount()];
+        int stride = 1;
+        for (int i = 0; i < strides.length; i++) {
+            strides[i] = stride;
+            stride *= board.getLanePositions(i);
+        }
+        return strides;
+    }
+
+    private static int index(BitBoard board, long key, int[] strides) {
+        int index = 0;
+        for (int i = 0; i < strides.length; i++) {
+            index += board.offset(key, i) * strides[i];
+        }
+        return index;
+    }
+
+    /** Writes the table in the format described above. */
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(template.getSize());
+            out.writeByte(template.getExitRow());
+            out.writeByte(template.getExitCol());
+            out.writeByte(template.getVehicleCount());
+            for (int i = 0; i < template.getVehicleCount(); i++) {
+                out.writeChar(template.getId(i));
+                out.writeByte(template.isHorizontal(i) ? 1 : 0);
+                out.writeByte(template.getLength(i));
+                out.writeByte(template.getLane(i));
+            }
+            out.writeByte(maxDistance);
+            out.writeInt(entries);
+            writeDistances(out);
+        }
+    }
+
+    private void writeDistances(OutputStream out) throws IOException {
+        byte[] chunk = new byte[1 << 16];
+        ByteBuffer source = distances.duplicate();
+        source.clear();
+        while (source.hasRemaining()) {
+            int length = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+    }
+
+    /** Maps a table written by {@link #write} into memory; nothing is read until it is looked up. */
+    public static DistanceDatabase open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException("Not a distance database: " + path);
+            }
+            int size = buffer.get();
+            Position exit = new Position(buffer.get(), buffer.get());
+            int count = Byte.toUnsignedInt(buffer.get());
+            char[] ids = new char[count];
+            boolean[] horizontal = new boolean[count];
+            int[] lengths = new int[count];
+            int[] lanes = new int[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = buffer.getChar();
+                horizontal[i] = buffer.get() != 0;
+                lengths[i] = buffer.get();
+                lanes[i] = buffer.get();
+                if (lengths[i] < 1 || lengths[i] > size || lanes[i] < 0 || lanes[i] >= size) {
+                    throw new IOException("Corrupt distance database: " + path);
+                }
+            }
+            int maxDistance = Byte.toUnsignedInt(buffer.get());
+            int entries = buffer.getInt();
+            BitBoard template = new BitBoard(size, exit, ids, horizontal, lengths, lanes);
+            if (entries != entries(template) || buffer.remaining() != entries) {
+                throw new IOException("Truncated distance database: " + path);
+            }
+            return new DistanceDatabase(template, maxDistance, buffer.slice());
+        } catch (RushHourException | RuntimeException e) {
+            // RuntimeException covers a header cut short (BufferUnderflowException)
+            throw new IOException("Corrupt distance database: " + path, e);
+        }
+    }
+
+    public int getVehicleCount() {
+        return template.getVehicleCount();
+    }
+
+    /** Longest optimal solution of any configuration in the table. */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /** True when {@code puzzle} has exactly this database's board, exit, vehicles, lanes and lengths. */
+    public boolean matches(RushHour puzzle) {
+        List<Vehicle> vehicles = puzzle.getVehicles();
+        Position exit = puzzle.getExit();
+        if (puzzle.getSize() != template.getSize() || exit.getRow() != template.getExitRow()
+            || exit.getCol() != template.getExitCol() || vehicles.size() != template.getVehicleCount()) {
+            return false;
+        }
+        for (Vehicle v : vehicles) {
+            int i = template.indexOf(v.getId());
+            if (i < 0 || v.isHorizontal() != template.isHorizontal(i) || v.getLength() != template.getLength(i)
+                || lane(v) != template.getLane(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Moves left to the goal from {@code puzzle}, or UNREACHABLE if it has no solution. */
+    public int distance(RushHour puzzle) throws RushHourException {
+        return distance(keyOf(puzzle));
+    }
+
+    /** Same as {@link #distance(RushHour)} for the key of a board with this database's vehicle order. */
+    public int distance(long key) {
+        int distance = Byte.toUnsignedInt(distances.get(index(template, key, strides)));
+        return distance == NO_DISTANCE ? UNREACHABLE : distance;
+    }
+
+    public boolean isSolvable(RushHour puzzle) throws RushHourException {
+        return distance(puzzle) != UNREACHABLE;
+    }
+
+    /** A move that starts an optimal solution, or null at the goal or when there is none. */
+    public Move bestMove(RushHour puzzle) throws RushHourException {
+        long key = keyOf(puzzle);
+        int distance = distance(key);
+        if (distance == UNREACHABLE || distance == 0) {
+            return null;
+        }
+        BitBoard board = new BitBoard(template);
+        board.load(key);
+        int[] moves = new int[2 * board.getVehicleCount()];
+        int count = board.generateMoves(moves);
+        for (int m = 0; m < count; m++) {
+            board.apply(moves[m]);
+            boolean closer = distance(board.getKey()) == distance - 1;
+            board.undo(moves[m]);
+            if (closer) {
+                return board.toMove(moves[m]);
+            }
+        }
+        throw new IllegalStateException("Distance table is inconsistent at " + key);
+    }
+
+    /** An optimal solution read off the table one best move at a time, or null if there is none. */
+    public List<Move> solution(RushHour puzzle) throws RushHourException {
+        long key = keyOf(puzzle);
+        if (distance(key) == UNREACHABLE) {
+            return null;
+        }
+        BitBoard board = new BitBoard(template);
+        board.load(key);
+        int[] moves = new int[2 * board.getVehicleCount()];
+        List<Move> solution = new ArrayList<>();
+        for (int distance = distance(key); distance > 0; distance--) {
+            int count = board.generateMoves(moves);
+            int closer = -1;
+            for (int m = 0; m < count && closer < 0; m++) {
+                board.apply(moves[m]);
+                if (distance(board.getKey()) == distance - 1) {
+                    closer = moves[m];
+                } else {
+                    board.undo(moves[m]);
+                }
+            }
+            // Only a corrupt table, or one built for other lanes, has a state with no move closer
+            if (closer < 0) {
+                throw new RushHourException("Distance table is inconsistent at " + board.getKey() + ".");
+            }
+            solution.add(board.toMove(closer));
+        }
+        return solution;
+    }
+
+    private long keyOf(RushHour puzzle) throws RushHourException {
+        if (!matches(puzzle)) {
+            throw new RushHourException("Puzzle does not use this database's vehicle set.");
+        }
+        long key = 0;
+        for (Vehicle v : puzzle.getVehicles()) {
+            int offset = v.isHorizontal()
+                ? Math.min(v.getBack().getCol(), v.getFront().getCol())
+                : Math.min(v.getBack().getRow(), v.getFront().getRow());
+            key = template.withOffset(key, template.indexOf(v.getId()), offset);
+        }
+        return key;
+    }
+
+    private static int lane(Vehicle v) {
+        return v.isHorizontal() ? v.getBack().getRow() : v.getBack().getCol();
+    }
+}
@@ -0,0 +1,104 @@
+package model;
+
+/** The solver engines available to headless front ends, by command-line name. */
+public enum EngineType {
+    BFS("bfs") {
+        @Override
+        public SolverEngine create(Heuristic heuristic) {
+            return new BreadthFirstSolver();
+        }
+    },
+    PARALLEL_BFS("parallel") {
+        @Override
+        public SolverEngine create(Heuristic heuristic) {
+            return new ParallelBreadthFirstSolver();
+        }
+    },
+    EXTERNAL_BFS("external") {
+        @Override
+        public SolverEngine create(Heuristic heuristic) {
+            return new ExternalBreadthFirstSolver();
+        }
+    },
+    BIDIRECTIONAL_BFS("bidirectional") {
+        @Override
+        public SolverEngine create(Heuristic heuristic) {
+            return new BidirectionalBreadthFirstSolver();
+        }
+    },
+    ASTAR("astar") {
+        @Override
+        public SolverEngine create(Heuristic heuristic) {
+            return new AStarSolver(heuristic);
+        }
+    },
+    IDA_STAR("idastar") {
+        @Override
+        public SolverEngine create(Heuristic heuristic) {
+            return new IdaStarSolver(heuristic);
+        }
+
+        @Override
+        public boolean isComplete() {
+            return false;
+        }
+    },
+    BACKTRACKER("backtracker") {
+        @Override
+        public SolverEngine create(Heuristic heuristic) {
+            return new Backtracker(false);
+        }
+
+        @Override
+        public boolean isOptimal() {
+            return false;
+        }
+    },
+    PORTFOLIO("portfolio") {
+        @Override
+        public SolverEngine create(Heuristic heuristic) {
+            return PortfolioSolver.optimal(heuristic);
+        }
+    };
+
+    private final String cliName;
+
+    EngineType(String cliName) {
+        this.cliName = cliName;
+    }
+
+    public String getCliName() {
+        return cliName;
+    }
+
+    /** Whether solutions are shortest in the engine's metric, given an admissible heuristic. */
+    public boolean isOptimal() {
+        return true;
+    }
+
+    /** Whether a null from its engines proves there is no solution, see SolverEngine.isComplete. */
+    public boolean isComplete() {
+        return true;
+    }
+
+    /** Creates a fresh engine; engines keep per-solve state, so use one per thread. */
+    public abstract SolverEngine create(Heuristic heuristic);
+
+    /** Creates a fresh engine whose solutions are shortest in {@code metric}. */
+    public SolverEngine create(Heuristic heuristic, MoveMetric metric) {
+        SolverEngine engine = create(heuristic);
+        if (engine instanceof InstrumentedSolver) {
+            ((InstrumentedSolver) engine).setMetric(metric);
+        }
+        return engine;
+    }
+
+    public static EngineType fromCliName(String name) throws RushHourException {
+        for (EngineType type : values()) {
+            if (type.cliName.equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new RushHourException("Unknown engine: " + name);
+    }
+}
@@ -0,0 +1,460 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Breadth-first search that keeps within a memory budget by spilling to disk, in the style of
+ * external-memory BFS. Every move can be undone, so the successors of layer d lie in layers d - 1,
+ * d and d + 1: a new layer only has to be checked against the two before it (delayed duplicate
+ * detection), and older layers are read again only to trace the solution back.
+ * Layers are sorted runs of keys. Successors collect in a buffer that is sorted and written out as
+ * a run whenever it fills up; the runs are then merged into the next layer while the two previous
+ * layers are subtracted in the same pass. Layers that do not fit in the budget are kept in
+ * memory-mapped files in a temporary directory that is removed after the solve, so a search larger
+ * than the heap slows down to disk speed instead of running out of memory.
+ * Solutions are optimal, as with BreadthFirstSolver. The visited count in the metrics is the number
+ * of states held in memory, so SearchLimits memory budgets keep meaning heap use.
+ */
+public class ExternalBreadthFirstSolver extends InstrumentedSolver {
+    public static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+
+    private static final int MIN_BUFFER = 1 << 10;
+    private static final int IO_BUFFER_BYTES = 1 << 20;
+    private static final int CHUNK_SHIFT = 27; // keys per mapping: 1 GiB of file
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final long memoryBudget;
+    private final Path tempDirectory;
+
+    public ExternalBreadthFirstSolver() {
+        this(DEFAULT_MEMORY_BUDGET, null);
+    }
+
+    /**
+     * @param memoryBudget bytes of heap for keys: half for the successor buffer, half for layers
+     * @param tempDirectory where spill files go, or null for the system temporary directory
+     */
+    public ExternalBreadthFirstSolver(long memoryBudget, Path tempDirectory) {
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
+    }
+
+    @Override
+    protected RushHourSolver search(RushHourSolver config) throws RushHourException {
+        if (config == null || !config.isValid()) {
+            return null;
+        }
+        if (config.isGoal()) {
+            return config;
+        }
+
+        BitBoard board = new BitBoard(config.rushHour);
+        int[] moves = new int[board.maxMoves(metric)];
+        long layerBudget = memoryBudget / 2 / Long.BYTES;
+        int bufferCapacity = (int) Math.max(MIN_BUFFER, Math.min(Integer.MAX_VALUE - 8, memoryBudget / 2 / Long.BYTES));
+
+        try (Spill spill = new Spill(tempDirectory)) {
+            List<Layer> layers = new ArrayList<>();
+            layers.add(new Layer(new long[] {board.getKey()}));
+            for (int depth = 0; layers.get(depth).size > 0; depth++) {
+                Layer layer = layers.get(depth);
+                Layer previous = depth > 0 ? layers.get(depth - 1) : Layer.EMPTY;
+                Successors next = new Successors(spill, bufferCapacity);
+                long goal = LongHashSet.EMPTY;
+                long held = inMemory(layers);
+                metrics.frontier(layer.size);
+                for (long i = 0; i < layer.size; i++) {
+                    board.load(layer.get(i));
+                    int count = board.generateMoves(moves, metric);
+                    metrics.expanded(1);
+                    metrics.generated(count);
+                    for (int m = 0; m < count; m++) {
+                        board.apply(moves[m]);
+                        long key = board.getKey();
+                        next.add(key);
+                        // Keep the smallest goal key of the layer so the answer is deterministic
+                        if (board.isGoal() && (goal == LongHashSet.EMPTY || key < goal)) {
+                            goal = key;
+                        }
+                        board.undo(moves[m]);
+                    }
+                    metrics.visited(next.size + held);
+                    checkpoint();
+                }
+                if (goal != LongHashSet.EMPTY) {
+                    solutionFound();
+                    return config.followedBy(tracePath(board, layers, goal, depth + 1));
+                }
+
+                long room = Math.max(0, layerBudget - layer.memoryKeys() - previous.memoryKeys());
+                long generated = next.total;
+                Layer merged = next.merge(previous, layer, room);
+                metrics.pruned(generated - merged.size);
+                layers.add(merged);
+                // Only the last two layers are read while searching; older ones go to disk first
+                for (int i = 0; i < layers.size() && inMemory(layers) > layerBudget; i++) {
+                    layers.set(i, layers.get(i).spill(spill));
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new RushHourException("External search failed: " + e.getMessage());
+        }
+    }
+
+    private static long inMemory(List<Layer> layers) {
+        long keys = 0;
+        for (Layer layer : layers) {
+            keys += layer.memoryKeys();
+        }
+        return keys;
+    }
+
+    /**
+     * Walks back from {@code goal}, found in layer {@code depth}, to the start: each state has a
+     * neighbour in the layer before it, and the move to that neighbour reversed is the move played.
+     */
+    private List<Move> tracePath(BitBoard board, List<Layer> layers, long goal, int depth) {
+        Move[] path = new Move[depth];
+        int[] moves = new int[board.maxMoves(metric)];
+        long key = goal;
+        for (int d = depth - 1; d >= 0; d--) {
+            board.load(key);
+            int count = board.generateMoves(moves, metric);
+            int back = -1;
+            for (int m = 0; m < count && back < 0; m++) {
+                board.apply(moves[m]);
+                if (layers.get(d).contains(board.getKey())) {
+                    back = moves[m];
+                    key = board.getKey();
+                }
+                board.undo(moves[m]);
+            }
+            if (back < 0) {
+                throw new IllegalStateException("No predecessor of " + key + " in layer " + d);
+            }
+            int forward = BitBoard.encodeMove(BitBoard.moveVehicle(back),
+                BitBoard.opposite(BitBoard.moveDirection(back)), BitBoard.moveDistance(back));
+            path[d] = board.toMove(forward);
+        }
+        return Arrays.asList(path);
+    }
+
+    /** Sorted distinct keys, held in an array or in a memory-mapped file. */
+    private static final class Layer {
+        static final Layer EMPTY = new Layer(new long[0]);
+
+        final long size;
+        private final long[] keys;
+        private final LongBuffer[] chunks;
+        private final Path file;
+
+        Layer(long[] keys) {
+            this.size = keys.length;
+            this.keys = keys;
+            this.chunks = null;
+            this.file = null;
+        }
+
+        Layer(Path file, long size) throws IOException {
+            this.size = size;
+            this.keys = null;
+            this.file = file;
+            this.chunks = new LongBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                for (int c = 0; c < chunks.length; c++) {
+                    long first = (long) c << CHUNK_SHIFT;
+                    long count = Math.min(size - first, 1L << CHUNK_SHIFT);
+                    chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, first * Long.BYTES, count * Long.BYTES)
+                        .asLongBuffer();
+                }
+            }
+        }
+
+        long get(long index) {
+            return keys != null ? keys[(int) index] : chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+        }
+
+        boolean contains(long key) {
+            long low = 0;
+            long high = size - 1;
+            while (low <= high) {
+                long mid = (low + high) >>> 1;
+                long value = get(mid);
+                if (value < key) {
+                    low = mid + 1;
+                } else if (value > key) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Removes the file behind a layer that is no longer read; the mapping stays valid meanwhile. */
+        void delete() {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // still mapped, as on Windows; Spill.close tries again
+                }
+            }
+        }
+
+        long memoryKeys() {
+            return keys == null ? 0 : size;
+        }
+
+        /** This layer in a file; itself when it is on disk already. */
+        Layer spill(Spill spill) throws IOException {
+            if (keys == null) {
+                return this;
+            }
+            LayerWriter writer = new LayerWriter(spill, 0);
+            for (long key : keys) {
+                writer.add(key);
+            }
+            return writer.finish();
+        }
+    }
+
+    /** Builds a layer from ascending keys, in memory up to a number of keys and on disk past it. */
+    private static final class LayerWriter {
+        private final Spill spill;
+        private final long memoryCap;
+        private long[] keys = new long[16];
+        private long size;
+        private Path file;
+        private FileChannel channel;
+        private ByteBuffer buffer;
+
+        LayerWriter(Spill spill, long memoryCap) {
+            this.spill = spill;
+            this.memoryCap = memoryCap;
+        }
+
+        void add(long key) throws IOException {
+            if (channel == null && size == memoryCap) {
+                file = spill.newFile();
+                channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                buffer = ByteBuffer.allocate(IO_BUFFER_BYTES);
+                for (int i = 0; i < size; i++) {
+                    write(keys[i]);
+                }
+                keys = null;
+            }
+            if (channel != null) {
+                write(key);
+            } else {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, (int) Math.min(memoryCap, keys.length * 2L));
+                }
+                keys[(int) size] = key;
+            }
+            size++;
+        }
+
+        private void write(long key) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putLong(key);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        Layer finish() throws IOException {
+            if (channel == null) {
+                return new Layer(Arrays.copyOf(keys, (int) size));
+            }
+            flush();
+            channel.close();
+            return new Layer(file, size);
+        }
+    }
+
+    /** Successors of one layer: a buffer that is written out as a sorted run whenever it fills up. */
+    private static final class Successors {
+        private final Spill spill;
+        private final int capacity;
+        private final List<Layer> runs = new ArrayList<>();
+        private long[] buffer = new long[MIN_BUFFER];
+        int size;
+        long total;
+
+        Successors(Spill spill, int capacity) {
+            this.spill = spill;
+            this.capacity = capacity;
+        }
+
+        void add(long key) throws IOException {
+            if (size == buffer.length) {
+                if (size == capacity) {
+                    int distinct = sortDistinct();
+                    LayerWriter run = new LayerWriter(spill, 0);
+                    for (int i = 0; i < distinct; i++) {
+                        run.add(buffer[i]);
+                    }
+                    runs.add(run.finish());
+                    size = 0;
+                } else {
+                    buffer = Arrays.copyOf(buffer, (int) Math.min(capacity, buffer.length * 2L));
+                }
+            }
+            buffer[size++] = key;
+            total++;
+        }
+
+        /** Sorts the buffer and moves its distinct keys to the front; returns how many there are. */
+        private int sortDistinct() {
+            Arrays.sort(buffer, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || buffer[i] != buffer[distinct - 1]) {
+                    buffer[distinct++] = buffer[i];
+                }
+            }
+            return distinct;
+        }
+
+        /**
+         * Merges the runs into the next layer, dropping keys of {@code previous} and
+         * {@code current}; the layer stays in memory up to {@code memoryCap} keys.
+         */
+        Layer merge(Layer previous, Layer current, long memoryCap) throws IOException {
+            long[] rest = Arrays.copyOf(buffer, sortDistinct());
+            buffer = null;
+            runs.add(new Layer(rest));
+            int k = runs.size();
+            long[] positions = new long[k];
+            long[] heads = new long[k];
+            int[] heap = new int[k]; // run indices, smallest head on top
+            int live = 0;
+            for (int r = 0; r < k; r++) {
+                if (runs.get(r).size > 0) {
+                    heads[r] = runs.get(r).get(0);
+                    heap[live++] = r;
+                }
+            }
+            for (int i = live / 2 - 1; i >= 0; i--) {
+                siftDown(heap, live, i, heads);
+            }
+
+            LayerWriter out = new LayerWriter(spill, memoryCap);
+            long p = 0;
+            long c = 0;
+            long last = 0;
+            boolean any = false;
+            while (live > 0) {
+                int r = heap[0];
+                long key = heads[r];
+                if (++positions[r] < runs.get(r).size) {
+                    heads[r] = runs.get(r).get(positions[r]);
+                } else {
+                    heap[0] = heap[--live];
+                }
+                siftDown(heap, live, 0, heads);
+                if (any && key == last) {
+                    continue;
+                }
+                any = true;
+                last = key;
+                while (p < previous.size && previous.get(p) < key) {
+                    p++;
+                }
+                while (c < current.size && current.get(c) < key) {
+                    c++;
+                }
+                if ((p < previous.size && previous.get(p) == key) || (c < current.size && current.get(c) == key)) {
+                    continue;
+                }
+                out.add(key);
+            }
+            for (Layer run : runs) {
+                run.delete();
+            }
+            runs.clear();
+            return out.finish();
+        }
+
+        private static void siftDown(int[] heap, int size, int i, long[] heads) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && heads[heap[left]] < heads[heap[smallest]]) {
+                    smallest = left;
+                }
+                if (right < size && heads[heap[right]] < heads[heap[smallest]]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                int swap = heap[i];
+                heap[i] = heap[smallest];
+                heap[smallest] = swap;
+                i = smallest;
+            }
+        }
+    }
+
+    /** Temporary directory for one solve's files, created on first use and removed on close. */
+    private static final class Spill implements AutoCloseable {
+        private final Path parent;
+        private Path directory;
+        private int files;
+
+        Spill(Path parent) {
+            this.parent = parent;
+        }
+
+        Path newFile() throws IOException {
+            if (directory == null) {
+                directory = parent == null
+                    ? Files.createTempDirectory("rushhour-bfs")
+                    : Files.createTempDirectory(parent, "rushhour-bfs");
+            }
+            return Files.createFile(directory.resolve("keys-" + (files++) + ".bin"));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (directory == null) {
+                return;
+            }
+            List<Path> paths;
+            try (Stream<Path> walk = Files.walk(directory)) {
+                paths = new ArrayList<>();
+                walk.forEach(paths::add);
+            }
+            Collections.reverse(paths); // files before their directory
+            for (Path path : paths) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    path.toFile().deleteOnExit(); // still mapped, as on Windows
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package model;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Lower bound on the number of moves left before a board reaches the goal.
+ * Informed engines stay move-optimal only with admissible (never overestimating) heuristics.
+ */
+public interface Heuristic {
+    /** Lower bound counting one-cell steps. */
+    int estimate(BitBoard board);
+
+    /**
+     * Lower bound under {@code metric}. One slide can cover any number of cells, so by default a
+     * positive CELLS bound only says that at least one slide is left.
+     */
+    default int estimate(BitBoard board, MoveMetric metric) {
+        int cells = estimate(board);
+        return metric == MoveMetric.CELLS || cells == 0 || cells >= Heuristics.UNSOLVABLE ? cells : 1;
+    }
+
+    /**
+     * The heuristic to search the vehicle set of {@code board} with under {@code metric}.
+     * Heuristics built from per-vehicle-set tables build or fetch them here; engines call this
+     * once before a search and the default is the heuristic itself.
+     */
+    default Heuristic prepare(BitBoard board, MoveMetric metric) throws RushHourException {
+        return prepare(board, metric, bytes -> { });
+    }
+
+    /**
+     * As above, for a search under limits: while building, a heuristic calls {@code checkpoint}
+     * every few thousand states with the bytes its tables hold so far, and stops with whatever
+     * that throws. Heuristics with tables override this one.
+     */
+    default Heuristic prepare(BitBoard board, MoveMetric metric, LongConsumer checkpoint) throws RushHourException {
+        return this;
+    }
+}
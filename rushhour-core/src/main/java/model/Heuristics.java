@@ -0,0 +1,136 @@
+package model;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Admissible heuristics that can be read straight off a BitBoard, in either MoveMetric.
+ * Counting slides, every term that measures cells shrinks to one move.
+ */
+public enum Heuristics implements Heuristic {
+    /** Always zero; informed engines then behave like uniform-cost search. */
+    NONE {
+        @Override
+        public int estimate(BitBoard board, MoveMetric metric) {
+            return 0;
+        }
+    },
+    /** Cells the red car 'X' still has to travel to reach the exit. */
+    RED_CAR_DISTANCE {
+        @Override
+        public int estimate(BitBoard board, MoveMetric metric) {
+            return redMoves(board, metric);
+        }
+    },
+    /** Red car distance plus one move for every vehicle standing between it and the exit. */
+    BLOCKING_CARS {
+        @Override
+        public int estimate(BitBoard board, MoveMetric metric) {
+            int moves = redMoves(board, metric);
+            if (moves == 0 || moves >= UNSOLVABLE) {
+                return moves;
+            }
+            return moves + Long.bitCount(blockers(board));
+        }
+    },
+    /**
+     * Red car distance, plus the fewest cells each blocker must slide to clear the red car's lane,
+     * plus one move for every blocker whose ways out are all obstructed. Blockers are only
+     * counted there when their obstructing vehicles are disjoint, so no move is counted twice.
+     */
+    BLOCKERS_OF_BLOCKERS {
+        @Override
+        public int estimate(BitBoard board, MoveMetric metric) {
+            int estimate = redMoves(board, metric);
+            if (estimate == 0 || estimate >= UNSOLVABLE) {
+                return estimate;
+            }
+            int red = board.getRedIndex();
+            int redLane = board.getLane(red);
+            int size = board.getSize();
+            long usedObstructors = 0;
+            for (long blockers = blockers(board); blockers != 0; blockers &= blockers - 1) {
+                int i = Long.numberOfTrailingZeros(blockers);
+                if (board.isHorizontal(i) == board.isHorizontal(red)) {
+                    // A vehicle sharing the red car's lane can never get out of its way
+                    return UNSOLVABLE;
+                }
+                int top = board.getOffset(i);
+                int length = board.getLength(i);
+
+                // Slide back until its far end is before the red lane, or forward until it is past it
+                int upCells = top + length - redLane;
+                int downCells = redLane + 1 - top;
+                boolean canGoUp = top - upCells >= 0;
+                boolean canGoDown = top + length - 1 + downCells < size;
+                if (!canGoUp && !canGoDown) {
+                    return UNSOLVABLE;
+                }
+                if (metric == MoveMetric.SLIDES) {
+                    estimate++;
+                } else {
+                    estimate += canGoUp && canGoDown ? Math.min(upCells, downCells) : (canGoUp ? upCells : downCells);
+                }
+
+                long upObstructors = canGoUp ? board.vehiclesAt(i, top - upCells, top - 1) : 0;
+                long downObstructors = canGoDown ? board.vehiclesAt(i, top + length, top + length - 1 + downCells) : 0;
+                boolean upBlocked = !canGoUp || upObstructors != 0;
+                boolean downBlocked = !canGoDown || downObstructors != 0;
+                long obstructors = upObstructors | downObstructors;
+                if (upBlocked && downBlocked && (obstructors & usedObstructors) == 0) {
+                    estimate++;
+                    usedObstructors |= obstructors;
+                }
+            }
+            return estimate;
+        }
+    },
+    /** The largest of several PatternDatabases with default limits; see that class. */
+    PATTERN_DATABASES {
+        @Override
+        public int estimate(BitBoard board, MoveMetric metric) {
+            return PATTERNS.estimate(board, metric);
+        }
+
+        @Override
+        public Heuristic prepare(BitBoard board, MoveMetric metric, LongConsumer checkpoint)
+                throws RushHourException {
+            return PATTERNS.prepare(board, metric, checkpoint);
+        }
+    };
+
+    /** Returned for boards the red car can provably never leave. */
+    public static final int UNSOLVABLE = 1 << 20;
+
+    private static final PatternDatabases PATTERNS = new PatternDatabases();
+
+    @Override
+    public int estimate(BitBoard board) {
+        return estimate(board, MoveMetric.CELLS);
+    }
+
+    @Override
+    public abstract int estimate(BitBoard board, MoveMetric metric);
+
+    /** Moves the red car itself still needs, or UNSOLVABLE when it can never cover the exit. */
+    private static int redMoves(BitBoard board, MoveMetric metric) {
+        if (board.getRedIndex() < 0) {
+            return 0;
+        }
+        int cells = board.getRedDistance();
+        if (cells < 0) {
+            return UNSOLVABLE;
+        }
+        return metric == MoveMetric.SLIDES ? Math.min(cells, 1) : cells;
+    }
+
+    /** The vehicles covering a cell between the red car and the exit, as bits of a long. */
+    private static long blockers(BitBoard board) {
+        int path = board.getRedPath();
+        if (path == 0) {
+            return 0;
+        }
+        int from = Integer.numberOfTrailingZeros(path);
+        int to = 31 - Integer.numberOfLeadingZeros(path);
+        return board.vehiclesAt(board.getRedIndex(), from, to);
+    }
+}
@@ -0,0 +1,246 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Next-move hints that keep their search work between the player's moves.
+ * Every state the engine has solved keeps an exact distance-to-goal label. On the first hint it
+ * explores the whole component of the board (every state the player can reach) and labels all of
+ * it with one backward pass from its goals, so later hints are a label lookup over the neighbours.
+ * When the component is larger than the state cap it labels solution paths instead, and a move off
+ * the labelled states searches forward only until the labels prove the shortest way back.
+ * Distances count moves as the engine's MoveMetric does, so hints agree with a solver using it.
+ * Not thread-safe; use one engine per game.
+ */
+public class HintEngine {
+    public static final int DEFAULT_STATE_CAP = 1 << 20;
+    public static final int UNREACHABLE = -1;
+
+    private static final int NO_SOLUTION = 0xFF; // label of states with no way to the goal
+    private static final int MAX_LABEL = NO_SOLUTION - 1;
+
+    private final int stateCap;
+    private final MoveMetric metric;
+    private BitBoard board; // vehicle set the labels belong to, reused as the scratch board
+    private int[] moves;
+    private LongByteHashMap labels = new LongByteHashMap();
+    private boolean componentTried; // labelComponent ran for this game
+    private boolean wholeComponent; // labels cover every state the player can reach
+    private long nodesExpanded;
+
+    public HintEngine() {
+        this(DEFAULT_STATE_CAP, MoveMetric.CELLS);
+    }
+
+    public HintEngine(int stateCap) {
+        this(stateCap, MoveMetric.CELLS);
+    }
+
+    public HintEngine(MoveMetric metric) {
+        this(DEFAULT_STATE_CAP, metric);
+    }
+
+    public HintEngine(int stateCap, MoveMetric metric) {
+        this.stateCap = stateCap;
+        this.metric = metric;
+    }
+
+    /** A move that starts a shortest solution, or null at the goal or when there is none. */
+    public Move hint(RushHour rushHour) throws RushHourException {
+        int distance = distance(rushHour);
+        if (distance == UNREACHABLE || distance == 0) {
+            return null;
+        }
+        long key = board.getKey();
+        int count = board.generateMoves(moves, metric);
+        for (int m = 0; m < count; m++) {
+            board.apply(moves[m]);
+            boolean closer = label() == distance - 1;
+            board.undo(moves[m]);
+            if (closer) {
+                return board.toMove(moves[m]);
+            }
+        }
+        throw new IllegalStateException("No labelled neighbour one move closer than " + key);
+    }
+
+    /**
+     * Moves left on a shortest solution from {@code rushHour}, or UNREACHABLE if it has none.
+     * Throws SearchAbortedException when the search needed more than the state cap.
+     */
+    public int distance(RushHour rushHour) throws RushHourException {
+        nodesExpanded = 0;
+        BitBoard current = new BitBoard(rushHour);
+        if (board == null || !board.sameVehicles(current)) {
+            reset();
+            board = current;
+            moves = new int[board.maxMoves(metric)];
+        } else {
+            board.load(current.getKey());
+        }
+        long key = board.getKey();
+        int label = label();
+        if (label == LongByteHashMap.NO_VALUE) {
+            if (wholeComponent) {
+                // Same vehicles, but a position the player could not have reached: a new game
+                labels = new LongByteHashMap();
+                wholeComponent = false;
+                componentTried = false;
+            }
+            if (!componentTried) {
+                componentTried = true;
+                labelComponent(key);
+            }
+            if (!wholeComponent) {
+                if (labels.size() > stateCap) {
+                    labels = new LongByteHashMap();
+                }
+                extendFrom(key);
+            }
+            board.load(key);
+            label = label();
+            if (label == LongByteHashMap.NO_VALUE) {
+                throw new SearchAbortedException(SearchAbortedException.Reason.MEMORY_LIMIT);
+            }
+        }
+        return label == NO_SOLUTION ? UNREACHABLE : label;
+    }
+
+    /** States the last call searched; zero when it was answered from the labels. */
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /** Drops every label, for example to free memory between games. */
+    public void reset() {
+        labels = new LongByteHashMap();
+        wholeComponent = false;
+        componentTried = false;
+        board = null;
+        moves = null;
+    }
+
+    // Goals need no label: the red car is already out
+    private int label() {
+        return board.isGoal() ? 0 : labels.get(board.getKey());
+    }
+
+    /**
+     * Collects every state reachable from {@code start}, then labels them all by breadth-first
+     * search back from the goals among them. Gives up, labelling nothing, past the state cap.
+     */
+    private void labelComponent(long start) {
+        LongHashSet component = new LongHashSet();
+        LongArrayList states = new LongArrayList();
+        LongArrayList goals = new LongArrayList();
+        component.add(start);
+        states.add(start);
+        for (int i = 0; i < states.size(); i++) {
+            board.load(states.get(i));
+            if (board.isGoal()) {
+                goals.add(states.get(i));
+            }
+            int count = board.generateMoves(moves, metric);
+            nodesExpanded++;
+            for (int m = 0; m < count; m++) {
+                board.apply(moves[m]);
+                if (component.add(board.getKey())) {
+                    if (states.size() == stateCap) {
+                        return;
+                    }
+                    states.add(board.getKey());
+                }
+                board.undo(moves[m]);
+            }
+        }
+
+        LongByteHashMap distances = new LongByteHashMap(states.size());
+        LongArrayList frontier = goals;
+        for (int i = 0; i < frontier.size(); i++) {
+            distances.putIfAbsent(frontier.get(i), 0);
+        }
+        for (int depth = 1; !frontier.isEmpty() && depth <= MAX_LABEL; depth++) {
+            LongArrayList next = new LongArrayList();
+            for (int i = 0; i < frontier.size(); i++) {
+                board.load(frontier.get(i));
+                int count = board.generateMoves(moves, metric);
+                for (int m = 0; m < count; m++) {
+                    board.apply(moves[m]);
+                    if (distances.putIfAbsent(board.getKey(), depth)) {
+                        next.add(board.getKey());
+                    }
+                    board.undo(moves[m]);
+                }
+            }
+            frontier = next;
+        }
+        if (!frontier.isEmpty()) {
+            return; // deeper than a label can hold; fall back to path labels
+        }
+        for (int i = 0; i < states.size(); i++) {
+            distances.putIfAbsent(states.get(i), NO_SOLUTION);
+        }
+        labels = distances;
+        wholeComponent = true;
+    }
+
+    /**
+     * Breadth-first search from {@code start} that stops as soon as no unlabelled state can beat
+     * the best "depth + label" seen: every state in layer d is at least d moves away, so once d
+     * reaches the best total that total is the true distance. The path to the labelled state it
+     * came from is then labelled too, which keeps later hints along it free.
+     */
+    private void extendFrom(long start) {
+        PackedDepthMap depths = new PackedDepthMap(board.getKeyBits()); // depth mod 3, as in BreadthFirstSolver
+        depths.putIfAbsent(start, 0);
+        LongArrayList frontier = new LongArrayList();
+        frontier.add(start);
+        int best = Integer.MAX_VALUE;
+        long bestKey = start;
+        int bestDepth = 0;
+        for (int depth = 1; !frontier.isEmpty() && depth < best; depth++) {
+            if (depths.size() > stateCap) {
+                return; // best is not proven yet, so start stays unlabelled
+            }
+            LongArrayList next = new LongArrayList(frontier.size() * 2);
+            for (int i = 0; i < frontier.size(); i++) {
+                board.load(frontier.get(i));
+                int count = board.generateMoves(moves, metric);
+                nodesExpanded++;
+                for (int m = 0; m < count; m++) {
+                    board.apply(moves[m]);
+                    long key = board.getKey();
+                    if (depths.putIfAbsent(key, depth % 3)) {
+                        int label = label();
+                        if (label != LongByteHashMap.NO_VALUE && label != NO_SOLUTION && depth + label < best) {
+                            best = depth + label;
+                            bestKey = key;
+                            bestDepth = depth;
+                        }
+                        next.add(key);
+                    }
+                    board.undo(moves[m]);
+                }
+            }
+            frontier = next;
+        }
+
+        if (best == Integer.MAX_VALUE) {
+            labels.putIfAbsent(start, NO_SOLUTION); // searched everything reachable
+            return;
+        }
+        if (best > MAX_LABEL) {
+            return;
+        }
+        List<Move> path = BreadthFirstSolver.tracePath(board, metric, depths::get, bestKey, bestDepth);
+        board.load(start);
+        for (int i = 0; i < path.size(); i++) {
+            labels.putIfAbsent(board.getKey(), best - i);
+            Move move = path.get(i);
+            board.move(board.indexOf(move.getVehicleId()), move.getDirection(), move.getDistance());
+        }
+        if (!board.isGoal()) {
+            labels.putIfAbsent(board.getKey(), best - path.size());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Iterative-deepening A*: repeated depth-first passes with a growing f bound.
+ * Memory stays bounded by a fixed-size transposition cache plus the solution depth, and every
+ * pass reuses one board in place. Boards with no solution within maxDepth return null.
+ */
+public class IdaStarSolver extends InstrumentedSolver {
+    public static final int DEFAULT_MAX_DEPTH = 200;
+    private static final int DEFAULT_CACHE_BITS = 20;
+    private static final int FOUND = -1;
+
+    private final Heuristic heuristic;
+    private final int maxDepth;
+    private final int cacheBits;
+
+    private Heuristic prepared; // the heuristic for the current board's vehicle set
+    private BitBoard board;
+    private int[][] moveBuffers;
+    private int[] path;
+    private int pathLength;
+    // Direct-mapped cache of the smallest g each state was reached with in the current pass
+    private long[] cacheKeys;
+    private int[] cacheDepths;
+
+    public IdaStarSolver(Heuristic heuristic) {
+        this(heuristic, DEFAULT_MAX_DEPTH, DEFAULT_CACHE_BITS);
+    }
+
+    public IdaStarSolver(Heuristic heuristic, int maxDepth, int cacheBits) {
+        this.heuristic = heuristic;
+        this.maxDepth = maxDepth;
+        this.cacheBits = cacheBits;
+    }
+
+    /** Boards whose solutions are longer than maxDepth come back null as well. */
+    @Override
+    public boolean isComplete() {
+        return false;
+    }
+
+    @Override
+    protected RushHourSolver search(RushHourSolver config) throws RushHourException {
+        if (config == null || !config.isValid()) {
+            return null;
+        }
+        if (config.isGoal()) {
+            return config;
+        }
+
+        board = new BitBoard(config.rushHour);
+        path = new int[maxDepth];
+        moveBuffers = new int[maxDepth][board.maxMoves(metric)];
+        cacheKeys = new long[1 << cacheBits];
+        cacheDepths = new int[1 << cacheBits];
+        try {
+            prepared = heuristic.prepare(board, metric, this::checkLimits);
+            int bound = prepared.estimate(board, metric);
+            while (bound <= maxDepth) {
+                Arrays.fill(cacheKeys, LongHashSet.EMPTY);
+                int result = search(0, bound, -1);
+                if (result == FOUND) {
+                    solutionFound();
+                    List<Move> moves = new ArrayList<>();
+                    for (int i = 0; i < pathLength; i++) {
+                        moves.add(board.toMove(path[i]));
+                    }
+                    return config.followedBy(moves);
+                }
+                bound = result;
+            }
+            return null;
+        } finally {
+            prepared = null;
+            board = null;
+            moveBuffers = null;
+            path = null;
+            cacheKeys = null;
+            cacheDepths = null;
+        }
+    }
+
+    /** Returns FOUND, or the smallest f that exceeded the bound below this node. */
+    private int search(int g, int bound, int previous) {
+        int f = g + prepared.estimate(board, metric);
+        if (f > bound) {
+            return f;
+        }
+        if (board.isGoal()) {
+            pathLength = g;
+            return FOUND;
+        }
+        if (g == maxDepth || !firstVisit(board.getKey(), g)) {
+            metrics.pruned(1);
+            return Heuristics.UNSOLVABLE;
+        }
+        int[] moves = moveBuffers[g];
+        int count = board.generateMoves(moves, metric);
+        metrics.expanded(1);
+        metrics.generated(count);
+        metrics.frontier(g + 1); // the open path is IDA*'s whole frontier
+        checkpoint();
+        int min = Heuristics.UNSOLVABLE;
+        for (int m = 0; m < count; m++) {
+            int move = moves[m];
+            if (previous >= 0 && isRedundant(move, previous)) {
+                continue;
+            }
+            board.apply(move);
+            path[g] = move;
+            int result = search(g + 1, bound, move);
+            board.undo(move);
+            if (result == FOUND) {
+                return FOUND;
+            }
+            min = Math.min(min, result);
+        }
+        return min;
+    }
+
+    /**
+     * Records the state and returns false if this pass already reached it with no more moves.
+     * That earlier visit had at least as much of the bound left, so its subtree covers this one.
+     */
+    private boolean firstVisit(long key, int g) {
+        int slot = LongHashSet.slot(key, cacheKeys.length - 1);
+        if (cacheKeys[slot] == key && cacheDepths[slot] <= g) {
+            return false;
+        }
+        cacheKeys[slot] = key;
+        cacheDepths[slot] = g;
+        return true;
+    }
+
+    /**
+     * Undoing the last move can never be on a shortest path. Counting slides, neither can moving
+     * the same vehicle twice in a row: one slide (or none) reaches the same state.
+     */
+    private boolean isRedundant(int move, int previous) {
+        if (BitBoard.moveVehicle(move) != BitBoard.moveVehicle(previous)) {
+            return false;
+        }
+        return metric == MoveMetric.SLIDES
+            || BitBoard.moveDirection(move) == BitBoard.opposite(BitBoard.moveDirection(previous));
+    }
+}
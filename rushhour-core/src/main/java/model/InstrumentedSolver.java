@@ -0,0 +1,165 @@
+package model;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Base class for engines that report SolverMetrics and honour SearchLimits. Subclasses implement
+ * search() and call checkpoint() once per expanded state; without a listener, limits or JFR that
+ * is one compare.
+ */
+public abstract class InstrumentedSolver implements SolverEngine {
+    private static final long CHECK_INTERVAL = 1 << 10;
+    private static final long REPORT_INTERVAL = 1 << 14;
+
+    protected final SolverMetrics metrics = new SolverMetrics();
+    protected MoveMetric metric = MoveMetric.CELLS;
+    private SolverListener listener;
+    private SearchLimits limits;
+    private long nextCheck;
+    private long nextReport;
+    private long heldBytes; // tables built for this solve outside the states it stores
+
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    /** Whether the following solves count one-cell steps or whole slides as moves. */
+    public void setMetric(MoveMetric metric) {
+        this.metric = metric;
+    }
+
+    @Override
+    public MoveMetric getMetric() {
+        return metric;
+    }
+
+    /** Limits for the following solves, or null for none. */
+    public void setLimits(SearchLimits limits) {
+        this.limits = limits;
+    }
+
+    protected SearchLimits getLimits() {
+        return limits;
+    }
+
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public long getNodesExpanded() {
+        return metrics.getStatesExpanded();
+    }
+
+    @Override
+    public final RushHourSolver solve(RushHourSolver config) throws RushHourException {
+        metrics.reset();
+        nextCheck = CHECK_INTERVAL;
+        nextReport = REPORT_INTERVAL;
+        heldBytes = 0;
+        // Loading an event class starts up JFR, which would double a short run's startup time
+        SolveEvent event = FlightRecorder.isInitialized() ? new SolveEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        RushHourSolver result = null;
+        try {
+            result = search(config);
+            return result;
+        } catch (Abort abort) {
+            throw new SearchAbortedException(abort.reason);
+        } finally {
+            metrics.finish();
+            if (event != null && event.shouldCommit()) {
+                event.engine = getClass().getSimpleName();
+                event.solved = result != null;
+                event.solutionLength = result == null ? -1 : result.getMoves().size();
+                event.statesExpanded = metrics.getStatesExpanded();
+                event.statesGenerated = metrics.getStatesGenerated();
+                event.duplicatesPruned = metrics.getDuplicatesPruned();
+                event.peakFrontier = metrics.getPeakFrontier();
+                event.peakVisited = metrics.getPeakVisited();
+                event.commit();
+            }
+            if (listener != null) {
+                listener.onFinished(metrics, result);
+            }
+        }
+    }
+
+    protected abstract RushHourSolver search(RushHourSolver config) throws RushHourException;
+
+    /**
+     * Stops the search if a limit ran out, and reports progress when enough states have been
+     * expanded since the last report.
+     */
+    protected final void checkpoint() {
+        long expanded = metrics.getStatesExpanded();
+        if (expanded < nextCheck) {
+            return;
+        }
+        nextCheck = expanded + CHECK_INTERVAL;
+        checkLimits();
+        if (expanded >= nextReport) {
+            nextReport = expanded + REPORT_INTERVAL;
+            report();
+        }
+    }
+
+    /** Stops the search right away if a limit ran out. */
+    protected final void checkLimits() {
+        if (limits != null) {
+            long held = metrics.getPeakVisited() + metrics.getPeakFrontier() + heldBytes / SearchLimits.BYTES_PER_STATE;
+            SearchAbortedException.Reason reason = limits.exceeded(held);
+            if (reason != null) {
+                throw new Abort(reason);
+            }
+        }
+    }
+
+    /**
+     * As checkLimits(), from work outside the search loop such as building a heuristic's tables;
+     * the {@code bytes} it holds count toward the memory budget for the rest of the solve.
+     */
+    protected final void checkLimits(long bytes) {
+        heldBytes = bytes;
+        checkLimits();
+    }
+
+    private void report() {
+        if (FlightRecorder.isInitialized()) {
+            commitProgressEvent();
+        }
+        if (listener != null) {
+            listener.onProgress(metrics);
+        }
+    }
+
+    private void commitProgressEvent() {
+        SolverProgressEvent event = new SolverProgressEvent();
+        if (event.shouldCommit()) {
+            event.engine = getClass().getSimpleName();
+            event.statesExpanded = metrics.getStatesExpanded();
+            event.peakVisited = metrics.getPeakVisited();
+            event.peakFrontier = metrics.getPeakFrontier();
+            event.commit();
+        }
+    }
+
+    protected final void solutionFound() {
+        metrics.solutionFound();
+        if (listener != null) {
+            listener.onSolutionFound(metrics);
+        }
+    }
+
+    /** Unwinds the search from inside loops and callbacks that cannot throw checked exceptions. */
+    private static final class Abort extends RuntimeException {
+        final SearchAbortedException.Reason reason;
+
+        Abort(SearchAbortedException.Reason reason) {
+            super(null, null, false, false);
+            this.reason = reason;
+        }
+    }
+}
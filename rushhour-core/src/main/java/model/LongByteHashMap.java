@@ -0,0 +1,96 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative long keys (packed board states) to small byte labels.
+ * Keys and values sit in two parallel arrays, about nine bytes per slot. The table doubles at
+ * three-quarters full, so between 0.375 and 0.75 of the slots are in use and a stored state costs
+ * 12 to 24 bytes. Breadth-first depths, which need only two bits, use the denser PackedDepthMap.
+ */
+public class LongByteHashMap {
+    public static final int NO_VALUE = -1;
+    private static final long EMPTY = LongHashSet.EMPTY;
+    private static final float MAX_LOAD = 0.75f;
+
+    private long[] keys;
+    private byte[] values;
+    private int size;
+    private int mask;
+
+    public LongByteHashMap() {
+        this(1 << 10);
+    }
+
+    public LongByteHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        keys = new long[capacity];
+        values = new byte[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    /** Stores the value only if the key is absent; returns true if it was added. */
+    public boolean putIfAbsent(long key, int value) {
+        int slot = LongHashSet.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = (byte) value;
+        if (++size > mask * MAX_LOAD) {
+            grow();
+        }
+        return true;
+    }
+
+    /** Returns the value for the key, or NO_VALUE when absent. Values are read back unsigned. */
+    public int get(long key) {
+        int slot = LongHashSet.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot] & 0xFF;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Bytes held by the table, for memory budgeting. */
+    public long memoryBytes() {
+        return (long) keys.length * (Long.BYTES + 1);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        if (oldKeys.length >= 1 << 30) {
+            throw new IllegalStateException("LongByteHashMap is full");
+        }
+        keys = new long[oldKeys.length << 1];
+        values = new byte[keys.length];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = LongHashSet.slot(oldKeys[i], mask);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
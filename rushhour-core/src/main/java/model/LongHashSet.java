@@ -0,0 +1,121 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of non-negative long keys (packed board states).
+ * Keys live in one flat array with linear probing, so there is no boxing and no per-entry object.
+ * The table grows by half at 0.8 full, so 0.53 to 0.8 of its eight-byte slots are in use and a
+ * stored state costs 10 to 15 bytes.
+ */
+public class LongHashSet {
+    static final long EMPTY = -1L; // never produced by StateCodec, which keeps the sign bit clear
+    static final float MAX_LOAD = 0.8f;
+    static final int MAX_CAPACITY = Integer.MAX_VALUE - 8; // largest array most JVMs allocate
+
+    private long[] keys;
+    private int size;
+    private int limit; // size that makes the table grow
+
+    public LongHashSet() {
+        this(1 << 10);
+    }
+
+    public LongHashSet(int expectedSize) {
+        keys = new long[capacityFor(expectedSize)];
+        Arrays.fill(keys, EMPTY);
+        limit = limitOf(keys.length);
+    }
+
+    /** Returns true if the key was not already present. */
+    public boolean add(long key) {
+        int slot = index(key, keys.length);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            if (++slot == keys.length) {
+                slot = 0;
+            }
+        }
+        keys[slot] = key;
+        if (++size > limit) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        int slot = index(key, keys.length);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            if (++slot == keys.length) {
+                slot = 0;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /** Bytes held by the table, for memory budgeting. */
+    public long memoryBytes() {
+        return (long) keys.length * Long.BYTES;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[grownCapacity(old.length, "LongHashSet")];
+        Arrays.fill(keys, EMPTY);
+        limit = limitOf(keys.length);
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = index(key, keys.length);
+                while (keys[slot] != EMPTY) {
+                    if (++slot == keys.length) {
+                        slot = 0;
+                    }
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    static int slot(long key, int mask) {
+        // Packed states differ mostly in low bits, so mix before masking
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /** Slot of {@code key} in a table of any capacity: the mixed hash scaled down, not masked. */
+    static int index(long key, int capacity) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (((h >>> 32) * capacity) >>> 32);
+    }
+
+    static int capacityFor(int expectedSize) {
+        return (int) Math.min(MAX_CAPACITY, Math.max(16, (long) (expectedSize / MAX_LOAD) + 1));
+    }
+
+    // Growing by half instead of doubling keeps the table at least 0.53 full after a resize
+    static int grownCapacity(int capacity, String name) {
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException(name + " is full");
+        }
+        return (int) Math.min(MAX_CAPACITY, capacity + (long) (capacity >> 1));
+    }
+
+    static int limitOf(int capacity) {
+        // A full table would never stop probing, so the largest one keeps a slot free
+        return capacity == MAX_CAPACITY ? capacity - 1 : (int) (capacity * MAX_LOAD);
+    }
+}
@@ -0,0 +1,112 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative long keys (packed board states) to int values.
+ * Keys and values sit in two parallel arrays, twelve bytes per slot, so 16 to 32 bytes per stored
+ * state at the 0.375 to 0.75 load the table keeps.
+ */
+public class LongIntHashMap {
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+    private static final long EMPTY = LongHashSet.EMPTY;
+    private static final float MAX_LOAD = 0.75f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public LongIntHashMap() {
+        this(1 << 10);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    /** Stores the value only if the key is absent; returns true if it was added. */
+    public boolean putIfAbsent(long key, int value) {
+        int slot = LongHashSet.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > mask * MAX_LOAD) {
+            grow();
+        }
+        return true;
+    }
+
+    /** Stores the value, replacing any previous one. */
+    public void put(long key, int value) {
+        int slot = LongHashSet.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > mask * MAX_LOAD) {
+            grow();
+        }
+    }
+
+    /** Returns the value for the key, or NO_VALUE when absent. */
+    public int get(long key) {
+        int slot = LongHashSet.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Bytes held by the table, for memory budgeting. */
+    public long memoryBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        if (oldKeys.length >= 1 << 30) {
+            throw new IllegalStateException("LongIntHashMap is full");
+        }
+        keys = new long[oldKeys.length << 1];
+        values = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = LongHashSet.slot(oldKeys[i], mask);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package model;
+
+/** @author Dominik Sain */
+public class Move {
+    private char vehicleId;
+    private Direction direction;
+    private int distance; // cells slid in one go, 1 for a single step
+
+    public Move(char vehicleId, Direction direction) {
+        this(vehicleId, direction, 1);
+    }
+
+    public Move(char vehicleId, Direction direction, int distance) {
+        this.vehicleId = vehicleId;
+        this.direction = direction;
+        this.distance = distance;
+    }
+
+    public char getVehicleId() {
+        return vehicleId;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Compact token such as "XR": the vehicle id followed by the direction's initial, and the
+     * distance when the move slides more than one cell ("XR3").
+     */
+    @Override
+    public String toString() {
+        String token = vehicleId + direction.name().substring(0, 1);
+        return distance == 1 ? token : token + distance;
+    }
+
+    public static Move parse(String token) throws RushHourException {
+        if (token.length() < 2) {
+            throw new RushHourException("Malformed move: " + token);
+        }
+        int distance = 1;
+        if (token.length() > 2) {
+            try {
+                distance = Integer.parseInt(token.substring(2));
+            } catch (NumberFormatException e) {
+                throw new RushHourException("Malformed move: " + token);
+            }
+            if (distance < 1) {
+                throw new RushHourException("Malformed move: " + token);
+            }
+        }
+        for (Direction direction : Direction.values()) {
+            if (direction.name().charAt(0) == token.charAt(1)) {
+                return new Move(token.charAt(0), direction, distance);
+            }
+        }
+        throw new RushHourException("Malformed move: " + token);
+    }
+}
@@ -0,0 +1,9 @@
+package model;
+
+/** What a solver counts as one move, and so what its solutions are shortest in. */
+public enum MoveMetric {
+    /** Every cell a vehicle travels is a move. */
+    CELLS,
+    /** Sliding one vehicle any number of free cells in one direction is a single move. */
+    SLIDES
+}
@@ -0,0 +1,101 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Visited states of a breadth-first search with their depth mod 3, in one long per slot: the
+ * depth sits in the two bits above a key of at most KEY_BITS bits, so there is no value array.
+ * Grown like LongHashSet, a stored state costs 10 to 15 bytes. Vehicle sets whose keys need more
+ * bits (see BitBoard.getKeyBits) fall back to a LongByteHashMap at 12 to 24 bytes a state.
+ */
+public class PackedDepthMap {
+    public static final int KEY_BITS = 62;
+    public static final int NO_VALUE = LongByteHashMap.NO_VALUE;
+    private static final long EMPTY = LongHashSet.EMPTY; // depth bits 11, which no depth mod 3 sets
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+
+    private final LongByteHashMap wide; // only for keys wider than KEY_BITS, otherwise null
+    private long[] slots;
+    private int size;
+    private int limit;
+
+    public PackedDepthMap(int keyBits) {
+        this(keyBits, 1 << 10);
+    }
+
+    public PackedDepthMap(int keyBits, int expectedSize) {
+        if (keyBits > KEY_BITS) {
+            wide = new LongByteHashMap(expectedSize);
+            return;
+        }
+        wide = null;
+        slots = new long[LongHashSet.capacityFor(expectedSize)];
+        Arrays.fill(slots, EMPTY);
+        limit = LongHashSet.limitOf(slots.length);
+    }
+
+    /** Stores {@code depth} (0 to 2) only if the key is absent; returns true if it was added. */
+    public boolean putIfAbsent(long key, int depth) {
+        if (wide != null) {
+            return wide.putIfAbsent(key, depth);
+        }
+        int slot = LongHashSet.index(key, slots.length);
+        while (slots[slot] != EMPTY) {
+            if ((slots[slot] & KEY_MASK) == key) {
+                return false;
+            }
+            if (++slot == slots.length) {
+                slot = 0;
+            }
+        }
+        slots[slot] = key | (long) depth << KEY_BITS;
+        if (++size > limit) {
+            grow();
+        }
+        return true;
+    }
+
+    /** Returns the depth stored for the key, or NO_VALUE when absent. */
+    public int get(long key) {
+        if (wide != null) {
+            return wide.get(key);
+        }
+        int slot = LongHashSet.index(key, slots.length);
+        while (slots[slot] != EMPTY) {
+            if ((slots[slot] & KEY_MASK) == key) {
+                return (int) (slots[slot] >>> KEY_BITS);
+            }
+            if (++slot == slots.length) {
+                slot = 0;
+            }
+        }
+        return NO_VALUE;
+    }
+
+    public int size() {
+        return wide != null ? wide.size() : size;
+    }
+
+    /** Bytes held by the table, for memory budgeting. */
+    public long memoryBytes() {
+        return wide != null ? wide.memoryBytes() : (long) slots.length * Long.BYTES;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[LongHashSet.grownCapacity(old.length, "PackedDepthMap")];
+        Arrays.fill(slots, EMPTY);
+        limit = LongHashSet.limitOf(slots.length);
+        for (long entry : old) {
+            if (entry != EMPTY) {
+                int slot = LongHashSet.index(entry & KEY_MASK, slots.length);
+                while (slots[slot] != EMPTY) {
+                    if (++slot == slots.length) {
+                        slot = 0;
+                    }
+                }
+                slots[slot] = entry;
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Level-synchronous breadth-first search: each frontier layer is expanded across a ForkJoinPool
+ * and deduplicated into a striped visited map. Depth labels and the goal choice do not depend on
+ * thread timing, so the move list is the same one BreadthFirstSolver returns.
+ */
+public class ParallelBreadthFirstSolver extends InstrumentedSolver {
+    private static final int CHUNK = 1024;
+
+    private final ForkJoinPool pool;
+
+    public ParallelBreadthFirstSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelBreadthFirstSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    protected RushHourSolver search(RushHourSolver config) throws RushHourException {
+        if (config == null || !config.isValid()) {
+            return null;
+        }
+        if (config.isGoal()) {
+            return config;
+        }
+
+        BitBoard template = new BitBoard(config.rushHour);
+        StripedLongByteHashMap depths = new StripedLongByteHashMap();
+        long start = template.getKey();
+        depths.putIfAbsent(start, 0);
+        LongArrayList frontier = new LongArrayList();
+        frontier.add(start);
+
+        for (int depth = 1; !frontier.isEmpty(); depth++) {
+            Layer layer = new Layer(template, metric, frontier, depths, depth % 3, getLimits());
+            pool.invoke(new Expand(layer, 0, frontier.size()));
+            metrics.frontier(frontier.size());
+            metrics.expanded(frontier.size());
+            metrics.generated(layer.generated.sum());
+            metrics.pruned(layer.pruned.sum());
+            metrics.visited(depths.size());
+            // Workers skip their chunks once a limit runs out, so never go on with a partial layer
+            checkLimits();
+            checkpoint();
+            long goal = layer.goal.get();
+            if (goal != Long.MAX_VALUE) {
+                solutionFound();
+                return config.followedBy(BreadthFirstSolver.tracePath(template, metric, depths::get, goal, depth));
+            }
+            frontier = layer.merge();
+        }
+        return null;
+    }
+
+    /** Shared state for expanding one frontier layer. */
+    private static final class Layer {
+        final BitBoard template;
+        final MoveMetric metric;
+        final LongArrayList frontier;
+        final StripedLongByteHashMap depths;
+        final int label;
+        final SearchLimits limits;
+        final Queue<LongArrayList> outputs = new ConcurrentLinkedQueue<>();
+        final AtomicLong goal = new AtomicLong(Long.MAX_VALUE);
+        final LongAdder generated = new LongAdder();
+        final LongAdder pruned = new LongAdder();
+
+        Layer(BitBoard template, MoveMetric metric, LongArrayList frontier, StripedLongByteHashMap depths,
+              int label, SearchLimits limits) {
+            this.template = template;
+            this.metric = metric;
+            this.frontier = frontier;
+            this.depths = depths;
+            this.label = label;
+            this.limits = limits;
+        }
+
+        LongArrayList merge() {
+            int size = 0;
+            for (LongArrayList part : outputs) {
+                size += part.size();
+            }
+            LongArrayList next = new LongArrayList(size);
+            for (LongArrayList part : outputs) {
+                next.addAll(part);
+            }
+            return next;
+        }
+    }
+
+    private static final class Expand extends RecursiveAction {
+        private final Layer layer;
+        private final int from;
+        private final int to;
+
+        Expand(Layer layer, int from, int to) {
+            this.layer = layer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Expand(layer, from, mid), new Expand(layer, mid, to));
+                return;
+            }
+            // The coordinator only sees the visited count between layers, so the memory budget is
+            // checked here against the states held so far, once per chunk
+            if (layer.limits != null && layer.limits.exceeded(layer.depths.size() + layer.frontier.size()) != null) {
+                return;
+            }
+            BitBoard board = new BitBoard(layer.template);
+            int[] moves = new int[board.maxMoves(layer.metric)];
+            LongArrayList found = new LongArrayList(2 * (to - from));
+            long goal = Long.MAX_VALUE;
+            long generated = 0;
+            for (int i = from; i < to; i++) {
+                board.load(layer.frontier.get(i));
+                int count = board.generateMoves(moves, layer.metric);
+                generated += count;
+                for (int m = 0; m < count; m++) {
+                    board.apply(moves[m]);
+                    long key = board.getKey();
+                    if (layer.depths.putIfAbsent(key, layer.label)) {
+                        found.add(key);
+                        if (board.isGoal()) {
+                            goal = Math.min(goal, key);
+                        }
+                    }
+                    board.undo(moves[m]);
+                }
+            }
+            layer.outputs.add(found);
+            layer.generated.add(generated);
+            layer.pruned.add(generated - found.size());
+            if (goal != Long.MAX_VALUE) {
+                layer.goal.accumulateAndGet(goal, Math::min);
+            }
+        }
+    }
+}
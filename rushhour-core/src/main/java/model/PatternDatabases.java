@@ -0,0 +1,410 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Heuristic read from pattern databases: exact distances for the red car and a subset of the
+ * other vehicles, with the rest taken off the board. Taking vehicles away only removes
+ * obstacles and the moves of the vehicles left out are free, so every table is a lower bound
+ * and the largest of them is one too.
+ *
+ * Patterns are picked when a search is prepared. Vehicles are ranked by how directly they stand
+ * in the red car's way at the start: first those in its lane, then those in the lanes of those,
+ * and so on. The first pattern takes them in that order as long as its table stays within
+ * maxEntries; further patterns keep the red car's lane and go on with vehicles no pattern has
+ * yet. Tables count cells, so when counting slides they only say whether a move is left.
+ *
+ * Vehicles sharing a lane never pass each other, so a table only holds placements that keep
+ * them in their order at the start, ranked lane by lane; two cars sharing a row of six take 6
+ * entries instead of 25. Each entry is one byte. Tables are built once per pattern of lanes and
+ * lengths and kept, up to CACHE_BYTES in all, for later searches. A build polls the search's
+ * limits every CHECK_INTERVAL states, counting its table and frontiers, and a stopped build is
+ * dropped rather than cached.
+ */
+public class PatternDatabases implements Heuristic {
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 26;
+    public static final int DEFAULT_MAX_PATTERNS = 3;
+
+    private static final long CACHE_BYTES = 1L << 28;
+    private static final int CHECK_INTERVAL = 1 << 12;
+    private static final int NO_DISTANCE = 0xFF;
+    private static final int MAX_DISTANCE = NO_DISTANCE - 1;
+    private static final int[][] BINOMIALS = binomials(BitBoard.MAX_SIZE + 1);
+
+    private static final Map<String, Table> TABLES = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedBytes;
+
+    private final int maxEntries;
+    private final int maxPatterns;
+
+    public PatternDatabases() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_PATTERNS);
+    }
+
+    public PatternDatabases(int maxEntries, int maxPatterns) {
+        if (maxEntries < 1 || maxPatterns < 1) {
+            throw new IllegalArgumentException("maxEntries and maxPatterns must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxPatterns = maxPatterns;
+    }
+
+    /** Works unprepared too, but then picks the patterns again on every call. */
+    @Override
+    public int estimate(BitBoard board) {
+        return estimate(board, MoveMetric.CELLS);
+    }
+
+    @Override
+    public int estimate(BitBoard board, MoveMetric metric) {
+        try {
+            return prepare(board, metric).estimate(board, metric);
+        } catch (RushHourException e) {
+            return Heuristics.BLOCKERS_OF_BLOCKERS.estimate(board, metric);
+        }
+    }
+
+    @Override
+    public Heuristic prepare(BitBoard board, MoveMetric metric, LongConsumer checkpoint) throws RushHourException {
+        if (metric != MoveMetric.CELLS || board.getRedIndex() < 0 || board.getRedDistance() < 0) {
+            return Heuristics.BLOCKERS_OF_BLOCKERS;
+        }
+        List<Table> tables = new ArrayList<>();
+        List<int[]> indexes = new ArrayList<>();
+        long bytes = 0; // cached tables count too: the search keeps them alive
+        for (int[] pattern : patterns(board)) {
+            int[] order = laneOrder(board, pattern);
+            Table table = table(board, order, checkpoint, bytes);
+            if (table != null) {
+                tables.add(table);
+                indexes.add(order);
+                bytes += table.distances.length;
+                checkpoint.accept(bytes);
+            }
+        }
+        if (tables.isEmpty()) {
+            return Heuristics.BLOCKERS_OF_BLOCKERS;
+        }
+        return new Prepared(tables.toArray(new Table[0]), indexes.toArray(new int[0][]));
+    }
+
+    /** Vehicle indexes of each pattern, the red car first. */
+    private List<int[]> patterns(BitBoard board) {
+        int red = board.getRedIndex();
+        int count = board.getVehicleCount();
+        int[] order = new int[count - 1]; // breadth-first from the red car over "stands in the lane of"
+        boolean[] ranked = new boolean[count];
+        ranked[red] = true;
+        int ranks = 0;
+        int inRedLane = 0;
+        int[] queue = new int[count];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = red;
+        while (head < tail) {
+            int v = queue[head++];
+            for (long in = board.vehiclesAt(v, 0, board.getSize() - 1); in != 0; in &= in - 1) {
+                int j = Long.numberOfTrailingZeros(in);
+                if (!ranked[j]) {
+                    ranked[j] = true;
+                    order[ranks++] = j;
+                    queue[tail++] = j;
+                }
+            }
+            if (v == red) {
+                inRedLane = ranks;
+            }
+        }
+        for (int j = 0; j < count; j++) {
+            if (!ranked[j]) {
+                order[ranks++] = j;
+            }
+        }
+
+        List<int[]> patterns = new ArrayList<>();
+        boolean[] covered = new boolean[count];
+        for (int p = 0; p < maxPatterns; p++) {
+            int[] pattern = new int[count];
+            int size = 0;
+            pattern[size++] = red;
+            boolean adds = false;
+            for (int r = 0; r < order.length; r++) {
+                int j = order[r];
+                if (p > 0 && r >= inRedLane && covered[j]) {
+                    continue;
+                }
+                pattern[size] = j;
+                if (entries(board, pattern, size + 1) <= maxEntries) {
+                    size++;
+                    adds |= !covered[j];
+                }
+            }
+            if (!adds) {
+                break;
+            }
+            for (int i = 0; i < size; i++) {
+                covered[pattern[i]] = true;
+            }
+            patterns.add(Arrays.copyOf(pattern, size));
+        }
+        return patterns;
+    }
+
+    /** Table entries for the first {@code size} vehicles of {@code pattern}, capped past maxEntries. */
+    private long entries(BitBoard board, int[] pattern, int size) {
+        long entries = 1;
+        boolean[] done = new boolean[size];
+        for (int a = 0; a < size && entries <= maxEntries; a++) {
+            if (done[a]) {
+                continue;
+            }
+            int vehicles = 0;
+            int free = board.getSize();
+            for (int b = a; b < size; b++) {
+                if (sameLane(board, pattern[a], pattern[b])) {
+                    done[b] = true;
+                    vehicles++;
+                    free -= board.getLength(pattern[b]);
+                }
+            }
+            entries *= BINOMIALS[free + vehicles][vehicles];
+        }
+        return entries;
+    }
+
+    private static boolean sameLane(BitBoard board, int i, int j) {
+        return board.isHorizontal(i) == board.isHorizontal(j) && board.getLane(i) == board.getLane(j);
+    }
+
+    /** The vehicles of a pattern ordered by orientation, lane and place in the lane. */
+    private static int[] laneOrder(BitBoard board, int[] pattern) {
+        Integer[] sorted = new Integer[pattern.length];
+        for (int i = 0; i < pattern.length; i++) {
+            sorted[i] = pattern[i];
+        }
+        Arrays.sort(sorted, (a, b) -> {
+            if (board.isHorizontal(a) != board.isHorizontal(b)) {
+                return board.isHorizontal(a) ? -1 : 1;
+            }
+            int byLane = Integer.compare(board.getLane(a), board.getLane(b));
+            return byLane != 0 ? byLane : Integer.compare(board.getOffset(a), board.getOffset(b));
+        });
+        int[] order = new int[sorted.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = sorted[i];
+        }
+        return order;
+    }
+
+    /**
+     * The table for vehicles {@code order} of board, cached or newly built; null when it cannot be.
+     * A build reports {@code heldBytes} plus its own to {@code checkpoint}.
+     */
+    private static Table table(BitBoard board, int[] order, LongConsumer checkpoint, long heldBytes)
+            throws RushHourException {
+        int n = order.length;
+        char[] ids = new char[n];
+        boolean[] horizontal = new boolean[n];
+        int[] lengths = new int[n];
+        int[] lanes = new int[n];
+        StringBuilder key = new StringBuilder().append(board.getSize())
+            .append('@').append(board.getExitRow()).append(',').append(board.getExitCol()).append(':');
+        for (int t = 0; t < n; t++) {
+            int i = order[t];
+            ids[t] = board.getId(i);
+            horizontal[t] = board.isHorizontal(i);
+            lengths[t] = board.getLength(i);
+            lanes[t] = board.getLane(i);
+            key.append(i == board.getRedIndex() ? 'x' : horizontal[t] ? 'h' : 'v')
+                .append(lanes[t]).append('.').append(lengths[t]).append(' ');
+        }
+        String name = key.toString();
+        synchronized (TABLES) {
+            Table table = TABLES.get(name);
+            if (table != null) {
+                return table;
+            }
+        }
+
+        BitBoard template = new BitBoard(board.getSize(), new Position(board.getExitRow(), board.getExitCol()),
+            ids, horizontal, lengths, lanes);
+        long start = 0;
+        for (int t = 0; t < n; t++) {
+            start = template.withOffset(start, t, board.getOffset(order[t]));
+        }
+        template.load(start);
+        Table table;
+        try {
+            table = new Table(template, checkpoint, heldBytes);
+        } catch (RushHourException e) {
+            return null; // distances too long for a byte; the other patterns still bound the search
+        }
+        synchronized (TABLES) {
+            if (TABLES.putIfAbsent(name, table) == null) {
+                cachedBytes += table.distances.length;
+                Iterator<Table> eldest = TABLES.values().iterator();
+                while (cachedBytes > CACHE_BYTES && TABLES.size() > 1) {
+                    cachedBytes -= eldest.next().distances.length;
+                    eldest.remove();
+                }
+            }
+        }
+        return table;
+    }
+
+    private static int[][] binomials(int n) {
+        int[][] binomials = new int[n + 1][n + 1];
+        for (int i = 0; i <= n; i++) {
+            binomials[i][0] = 1;
+            for (int k = 1; k <= i; k++) {
+                binomials[i][k] = binomials[i - 1][k - 1] + binomials[i - 1][k];
+            }
+        }
+        return binomials;
+    }
+
+    /**
+     * Distance to the goal of every placement of a pattern's vehicles, one byte each.
+     * The template holds the vehicles by orientation, lane and place in the lane. The k vehicles
+     * of a lane with f free cells are ranked as a k-subset of f + k slots (the slot of the t-th
+     * vehicle is its offset less the lengths before it, plus t), and the lanes' ranks are digits of
+     * a mixed-radix number.
+     */
+    private static final class Table {
+        private final int[] lengths;
+        private final int[] laneStarts; // first vehicle of each lane, then the vehicle count
+        private final int[] strides;
+        private final byte[] distances;
+
+        Table(BitBoard template, LongConsumer checkpoint, long heldBytes) throws RushHourException {
+            int n = template.getVehicleCount();
+            lengths = new int[n];
+            int[] starts = new int[n + 1];
+            int lanes = 0;
+            for (int i = 0; i < n; i++) {
+                lengths[i] = template.getLength(i);
+                if (i == 0 || !sameLane(template, i - 1, i)) {
+                    starts[lanes++] = i;
+                }
+            }
+            starts[lanes] = n;
+            laneStarts = Arrays.copyOf(starts, lanes + 1);
+            strides = new int[lanes];
+            int stride = 1;
+            for (int g = 0; g < lanes; g++) {
+                strides[g] = stride;
+                int free = template.getSize();
+                for (int i = laneStarts[g]; i < laneStarts[g + 1]; i++) {
+                    free -= lengths[i];
+                }
+                int vehicles = laneStarts[g + 1] - laneStarts[g];
+                stride *= BINOMIALS[free + vehicles][vehicles];
+            }
+            checkpoint.accept(heldBytes + stride); // before a budget too small for the table is spent on it
+            distances = new byte[stride];
+            Arrays.fill(distances, (byte) NO_DISTANCE);
+            fill(template, checkpoint, heldBytes);
+        }
+
+        /** Backward breadth-first search from every goal placement, as in DistanceDatabase. */
+        private void fill(BitBoard board, LongConsumer checkpoint, long heldBytes) throws RushHourException {
+            int[] identity = new int[lengths.length];
+            for (int i = 0; i < identity.length; i++) {
+                identity[i] = i;
+            }
+            LongArrayList frontier = new LongArrayList();
+            board.goalPlacements(frontier);
+            for (int i = 0; i < frontier.size(); i++) {
+                board.load(frontier.get(i));
+                distances[index(board, identity)] = 0;
+            }
+
+            LongArrayList next = new LongArrayList();
+            int[] moves = new int[board.maxMoves(MoveMetric.CELLS)];
+            for (int depth = 1; !frontier.isEmpty(); depth++) {
+                if (depth > MAX_DISTANCE) {
+                    throw new RushHourException("Distances above " + MAX_DISTANCE + " do not fit in the table.");
+                }
+                for (int i = 0; i < frontier.size(); i++) {
+                    if (i % CHECK_INTERVAL == 0) {
+                        long lists = Long.BYTES * ((long) frontier.size() + next.size());
+                        checkpoint.accept(heldBytes + distances.length + lists);
+                    }
+                    board.load(frontier.get(i));
+                    int count = board.generateMoves(moves);
+                    for (int m = 0; m < count; m++) {
+                        board.apply(moves[m]);
+                        int index = index(board, identity);
+                        if (distances[index] == (byte) NO_DISTANCE) {
+                            distances[index] = (byte) depth;
+                            next.add(board.getKey());
+                        }
+                        board.undo(moves[m]);
+                    }
+                }
+                LongArrayList swap = frontier;
+                frontier = next;
+                next = swap;
+                next.clear();
+            }
+        }
+
+        /** Entry of the placement where vehicle t of the table stands where board's vehicle vehicles[t] does. */
+        int index(BitBoard board, int[] vehicles) {
+            int index = 0;
+            for (int g = 0; g < strides.length; g++) {
+                int rank = 0;
+                int before = 0;
+                for (int t = laneStarts[g], k = 0; t < laneStarts[g + 1]; t++, k++) {
+                    rank += BINOMIALS[board.getOffset(vehicles[t]) - before + k][k + 1];
+                    before += lengths[t];
+                }
+                index += rank * strides[g];
+            }
+            return index;
+        }
+
+        int distance(BitBoard board, int[] vehicles) {
+            int distance = Byte.toUnsignedInt(distances[index(board, vehicles)]);
+            return distance == NO_DISTANCE ? DistanceDatabase.UNREACHABLE : distance;
+        }
+    }
+
+    /** The tables picked for one board and where each of their vehicles is on it. */
+    private static final class Prepared implements Heuristic {
+        private final Table[] tables;
+        private final int[][] vehicles;
+
+        Prepared(Table[] tables, int[][] vehicles) {
+            this.tables = tables;
+            this.vehicles = vehicles;
+        }
+
+        @Override
+        public int estimate(BitBoard board) {
+            return estimate(board, MoveMetric.CELLS);
+        }
+
+        @Override
+        public int estimate(BitBoard board, MoveMetric metric) {
+            int estimate = Heuristics.BLOCKERS_OF_BLOCKERS.estimate(board, metric);
+            if (estimate == 0 || estimate >= Heuristics.UNSOLVABLE) {
+                return estimate;
+            }
+            for (int t = 0; t < tables.length; t++) {
+                int distance = tables[t].distance(board, vehicles[t]);
+                if (distance == DistanceDatabase.UNREACHABLE) {
+                    return Heuristics.UNSOLVABLE;
+                }
+                estimate = Math.max(estimate, metric == MoveMetric.CELLS ? distance : Math.min(distance, 1));
+            }
+            return estimate;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Races several engines on one board, each on a thread of its own and under its own
+ * SearchLimits, and answers with the first result that meets the guarantee: any solution, or
+ * only one from an engine whose solutions are optimal. "No solution" counts only from a complete
+ * engine; IDA* giving up at its depth cap drops out of the race instead. The other engines are
+ * then cancelled and the solve returns at once: a loser holds its states until its next
+ * checkpoint, and expansions it had not reported yet are not counted. An engine that stops
+ * early or fails drops out of the race; the solve throws only when all of them did, with the
+ * last one's exception, or when the portfolio's own limits run out.
+ */
+public class PortfolioSolver extends InstrumentedSolver {
+    private static final long POLL_MILLIS = 10;
+
+    private final boolean optimal;
+    private final List<Entry> entries = new ArrayList<>();
+    private final ExecutorService pool = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "rushhour-portfolio");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile EngineType winner;
+
+    /** @param optimal whether only solutions from optimal engines may win */
+    public PortfolioSolver(boolean optimal) {
+        this.optimal = optimal;
+    }
+
+    /**
+     * The portfolio used for EngineType.PORTFOLIO: A* and IDA* with {@code heuristic} against
+     * plain breadth-first search, all optimal and unlimited.
+     */
+    public static PortfolioSolver optimal(Heuristic heuristic) {
+        return new PortfolioSolver(true)
+            .add(EngineType.ASTAR, heuristic, 0, 0)
+            .add(EngineType.IDA_STAR, heuristic, 0, 0)
+            .add(EngineType.BFS, heuristic, 0, 0);
+    }
+
+    /**
+     * Adds an engine that gets at most {@code timeLimitMillis} and {@code memoryBudgetBytes} per
+     * solve (0 for no limit). A fresh engine is created for every solve.
+     */
+    public PortfolioSolver add(EngineType type, Heuristic heuristic, long timeLimitMillis, long memoryBudgetBytes) {
+        entries.add(new Entry(type, heuristic, timeLimitMillis, memoryBudgetBytes));
+        return this;
+    }
+
+    /** Complete as soon as one of its engines is: only those may answer "no solution". */
+    @Override
+    public boolean isComplete() {
+        for (Entry entry : entries) {
+            if (entry.type.isComplete()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The engine whose answer the last solve returned, or null. */
+    public EngineType getWinner() {
+        return winner;
+    }
+
+    @Override
+    protected RushHourSolver search(RushHourSolver config) throws RushHourException {
+        winner = null;
+        if (config == null || !config.isValid()) {
+            return null;
+        }
+        if (config.isGoal()) {
+            solutionFound();
+            return config;
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalStateException("The portfolio has no engines.");
+        }
+
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        List<SearchLimits> limits = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            SearchLimits budget = new SearchLimits(entry.timeLimitMillis, entry.memoryBudgetBytes);
+            limits.add(budget);
+            pool.execute(() -> outcomes.add(entry.run(config, metric, budget)));
+        }
+
+        int running = entries.size();
+        RushHourException failure = null;
+        boolean gaveUp = false;
+        boolean rejected = false;
+        try {
+            while (running > 0) {
+                Outcome outcome;
+                try {
+                    outcome = outcomes.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SearchAbortedException(SearchAbortedException.Reason.CANCELLED);
+                }
+                checkLimits();
+                if (outcome == null) {
+                    continue;
+                }
+                running--;
+                metrics.expanded(outcome.expanded);
+                if (outcome.failure != null) {
+                    failure = outcome.failure;
+                    continue;
+                }
+                if (outcome.result == null && !outcome.entry.type.isComplete()) {
+                    gaveUp = true;
+                    continue;
+                }
+                if (outcome.result == null || !optimal || outcome.entry.type.isOptimal()) {
+                    winner = outcome.entry.type;
+                    if (outcome.result != null) {
+                        solutionFound();
+                    }
+                    return outcome.result;
+                }
+                rejected = true;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (gaveUp && !rejected) {
+                return null; // only incomplete engines ran, so isComplete() is false
+            }
+            throw new RushHourException("No engine in the portfolio is optimal.");
+        } finally {
+            // Losers notice at their next checkpoint and unwind on their own threads; their
+            // outcomes land in a queue nothing reads any more
+            for (SearchLimits budget : limits) {
+                budget.cancel();
+            }
+        }
+    }
+
+    /** One engine of the portfolio and its budget. */
+    private static final class Entry {
+        final EngineType type;
+        final Heuristic heuristic;
+        final long timeLimitMillis;
+        final long memoryBudgetBytes;
+
+        Entry(EngineType type, Heuristic heuristic, long timeLimitMillis, long memoryBudgetBytes) {
+            this.type = type;
+            this.heuristic = heuristic;
+            this.timeLimitMillis = timeLimitMillis;
+            this.memoryBudgetBytes = memoryBudgetBytes;
+        }
+
+        Outcome run(RushHourSolver config, MoveMetric metric, SearchLimits budget) {
+            SolverEngine engine = type.create(heuristic, metric);
+            if (engine instanceof InstrumentedSolver) {
+                ((InstrumentedSolver) engine).setLimits(budget);
+            }
+            try {
+                return new Outcome(this, engine.solve(config), null, engine.getNodesExpanded());
+            } catch (RushHourException e) {
+                return new Outcome(this, null, e, engine.getNodesExpanded());
+            } catch (RuntimeException | Error e) {
+                // Running out of heap in one engine must not leave the race waiting for it
+                RushHourException failure = new RushHourException(type.getCliName() + " failed: " + e);
+                return new Outcome(this, null, failure, engine.getNodesExpanded());
+            }
+        }
+    }
+
+    private static final class Outcome {
+        final Entry entry;
+        final RushHourSolver result;
+        final RushHourException failure;
+        final long expanded;
+
+        Outcome(Entry entry, RushHourSolver result, RushHourException failure, long expanded) {
+            this.entry = entry;
+            this.result = result;
+            this.failure = failure;
+            this.expanded = expanded;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Puzzles graded by the length of their optimal solution in one-cell moves.
+ * Each layout is kept once, by its SolutionCache key. A corpus file is a stream of puzzles in the
+ * PuzzleReader format separated by blank lines, each starting with a {@code # moves N} line.
+ * Thread-safe, so generator workers can add to one corpus.
+ */
+public class PuzzleCorpus {
+    private static final String MOVES_PREFIX = "# moves ";
+
+    private final TreeMap<Integer, List<RushHour>> byMoves = new TreeMap<>();
+    private final Map<String, Integer> keys = new HashMap<>();
+
+    /** Adds {@code puzzle} unless the corpus already holds its layout. */
+    public synchronized boolean add(RushHour puzzle, int moves) {
+        if (keys.putIfAbsent(SolutionCache.keyOf(puzzle), moves) != null) {
+            return false;
+        }
+        byMoves.computeIfAbsent(moves, m -> new ArrayList<>()).add(new RushHour(puzzle));
+        return true;
+    }
+
+    public synchronized int size() {
+        return keys.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /** Optimal solution lengths that have at least one puzzle, shortest first. */
+    public synchronized NavigableSet<Integer> getDifficulties() {
+        return Collections.unmodifiableNavigableSet(new TreeSet<>(byMoves.keySet()));
+    }
+
+    /** Copies of the puzzles whose optimal solution takes {@code moves} moves. */
+    public synchronized List<RushHour> getPuzzles(int moves) {
+        List<RushHour> copies = new ArrayList<>();
+        for (RushHour puzzle : byMoves.getOrDefault(moves, Collections.emptyList())) {
+            copies.add(new RushHour(puzzle));
+        }
+        return copies;
+    }
+
+    /**
+     * A copy of a random puzzle taking {@code moves} moves, or of one from the nearest difficulty
+     * there is (the harder one on a tie). Null when the corpus is empty.
+     */
+    public synchronized RushHour draw(int moves, Random random) {
+        Map.Entry<Integer, List<RushHour>> floor = byMoves.floorEntry(moves);
+        Map.Entry<Integer, List<RushHour>> ceiling = byMoves.ceilingEntry(moves);
+        Map.Entry<Integer, List<RushHour>> entry;
+        if (floor == null) {
+            entry = ceiling;
+        } else if (ceiling == null) {
+            entry = floor;
+        } else {
+            entry = moves - floor.getKey() < ceiling.getKey() - moves ? floor : ceiling;
+        }
+        if (entry == null) {
+            return null;
+        }
+        List<RushHour> puzzles = entry.getValue();
+        return new RushHour(puzzles.get(random.nextInt(puzzles.size())));
+    }
+
+    /** Optimal solution length of a puzzle drawn from this corpus, or -1 if it is not in it. */
+    public synchronized int movesOf(RushHour puzzle) {
+        return keys.getOrDefault(SolutionCache.keyOf(puzzle), -1);
+    }
+
+    /** Writes every puzzle, easiest first. */
+    public void write(Path file) throws IOException {
+        TreeMap<Integer, List<RushHour>> snapshot;
+        synchronized (this) {
+            snapshot = new TreeMap<>(byMoves);
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Map.Entry<Integer, List<RushHour>> entry : snapshot.entrySet()) {
+                for (RushHour puzzle : entry.getValue()) {
+                    out.write(MOVES_PREFIX + entry.getKey() + "\n");
+                    PuzzleReader.write(puzzle, out);
+                    out.write("\n");
+                }
+            }
+        }
+    }
+
+    public static PuzzleCorpus read(Path file) throws IOException, RushHourException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(in);
+        }
+    }
+
+    public static PuzzleCorpus read(BufferedReader in) throws IOException, RushHourException {
+        PuzzleCorpus corpus = new PuzzleCorpus();
+        List<String> lines;
+        while ((lines = PuzzleReader.nextPuzzle(in)) != null) {
+            String first = lines.get(0).trim();
+            if (!first.startsWith(MOVES_PREFIX)) {
+                throw new RushHourException("Corpus puzzle without a '" + MOVES_PREFIX.trim() + "' line: " + first);
+            }
+            int moves;
+            try {
+                moves = Integer.parseInt(first.substring(MOVES_PREFIX.length()).trim());
+            } catch (NumberFormatException e) {
+                throw new RushHourException("Malformed corpus line: " + first);
+            }
+            corpus.add(PuzzleReader.parse(lines), moves);
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,288 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes puzzles as hard as their vehicles allow by searching back from the goal.
+ * An attempt parks the red car at the exit, scatters random cars and trucks around it, collects
+ * every state reachable from there and runs a breadth-first search back from all the goals among
+ * them. The last layer holds the states farthest from any goal; the one with the smallest key
+ * becomes the puzzle, graded by its depth, so every puzzle is solvable by construction.
+ * Vehicles are ordered by lane before the search and relabelled in reading order afterwards (the
+ * red car stays 'X'), so finding the same layout twice gives the same puzzle and the same
+ * SolutionCache key, and a PuzzleCorpus keeps it once.
+ */
+public class PuzzleGenerator {
+    public static final int DEFAULT_STATE_CAP = 1 << 20;
+    public static final double DEFAULT_TRUCK_SHARE = 0.25;
+
+    private static final String IDS = CanonicalLabels.IDS;
+    private static final int PLACEMENT_TRIES = 20; // random spots tried for each vehicle
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+
+    private final int size;
+    private final Position exit;
+    private final int minVehicles;
+    private final int maxVehicles;
+    private final double truckShare;
+    private final int stateCap;
+
+    /** Classic 6x6 puzzles with 8 to 13 vehicles, red car included. */
+    public PuzzleGenerator() throws RushHourException {
+        this(RushHour.DEFAULT_SIZE, new RushHour().getExit(), 8, 13);
+    }
+
+    public PuzzleGenerator(int size, Position exit, int minVehicles, int maxVehicles) throws RushHourException {
+        this(size, exit, minVehicles, maxVehicles, DEFAULT_TRUCK_SHARE, DEFAULT_STATE_CAP);
+    }
+
+    /**
+     * Vehicle counts include the red car; each other vehicle is a truck with probability
+     * {@code truckShare}. Vehicle sets with more than {@code stateCap} reachable states are skipped.
+     */
+    public PuzzleGenerator(int size, Position exit, int minVehicles, int maxVehicles, double truckShare, int stateCap)
+            throws RushHourException {
+        new RushHour(size, exit); // checks the size and the exit
+        if (minVehicles < 1 || maxVehicles < minVehicles || maxVehicles > IDS.length() + 1) {
+            throw new RushHourException("Vehicle counts must be between 1 and " + (IDS.length() + 1) + ".");
+        }
+        this.size = size;
+        this.exit = exit;
+        this.minVehicles = minVehicles;
+        this.maxVehicles = maxVehicles;
+        this.truckShare = truckShare;
+        this.stateCap = stateCap;
+    }
+
+    /**
+     * Adds up to {@code count} new puzzles needing at least {@code minMoves} moves to
+     * {@code corpus}, making at most {@code attempts} attempts spread over {@code threads} workers.
+     * Returns how many were added. The puzzles found depend on {@code seed}, but with more than
+     * one worker also on timing.
+     */
+    public int generate(PuzzleCorpus corpus, int count, int minMoves, long attempts, int threads, long seed)
+            throws RushHourException {
+        AtomicLong tried = new AtomicLong();
+        AtomicInteger added = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int w = 0; w < threads; w++) {
+            Random random = new Random(seed + w * SEED_STRIDE);
+            workers.add(() -> {
+                while (added.get() < count && tried.getAndIncrement() < attempts) {
+                    GeneratedPuzzle puzzle = generate(random);
+                    if (puzzle != null && puzzle.getMoves() >= minMoves) {
+                        synchronized (added) {
+                            if (added.get() < count && corpus.add(puzzle.getPuzzle(), puzzle.getMoves())) {
+                                added.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "rushhour-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Future<Void> result : pool.invokeAll(workers)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SearchAbortedException(SearchAbortedException.Reason.CANCELLED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RushHourException) {
+                throw (RushHourException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return added.get();
+    }
+
+    /**
+     * The hardest start for one random vehicle set, or null when the set has more reachable
+     * states than the state cap.
+     */
+    public GeneratedPuzzle generate(Random random) throws RushHourException {
+        BitBoard board = randomGoal(random);
+        int[] moves = new int[board.maxMoves(MoveMetric.CELLS)];
+
+        LongHashSet component = new LongHashSet();
+        LongArrayList states = new LongArrayList();
+        LongArrayList goals = new LongArrayList();
+        long start = board.getKey();
+        component.add(start);
+        states.add(start);
+        for (int i = 0; i < states.size(); i++) {
+            board.load(states.get(i));
+            if (board.isGoal()) {
+                goals.add(states.get(i));
+            }
+            int count = board.generateMoves(moves);
+            for (int m = 0; m < count; m++) {
+                board.apply(moves[m]);
+                if (component.add(board.getKey())) {
+                    if (states.size() == stateCap) {
+                        return null;
+                    }
+                    states.add(board.getKey());
+                }
+                board.undo(moves[m]);
+            }
+        }
+
+        LongHashSet seen = new LongHashSet(states.size());
+        for (int i = 0; i < goals.size(); i++) {
+            seen.add(goals.get(i));
+        }
+        LongArrayList frontier = goals;
+        int depth = 0;
+        while (true) {
+            LongArrayList next = new LongArrayList();
+            for (int i = 0; i < frontier.size(); i++) {
+                board.load(frontier.get(i));
+                int count = board.generateMoves(moves);
+                for (int m = 0; m < count; m++) {
+                    board.apply(moves[m]);
+                    if (seen.add(board.getKey())) {
+                        next.add(board.getKey());
+                    }
+                    board.undo(moves[m]);
+                }
+            }
+            if (next.isEmpty()) {
+                break;
+            }
+            frontier = next;
+            depth++;
+        }
+
+        long hardest = Long.MAX_VALUE;
+        for (int i = 0; i < frontier.size(); i++) {
+            hardest = Math.min(hardest, frontier.get(i));
+        }
+        board.load(hardest);
+        return new GeneratedPuzzle(relabel(board.toRushHour()), depth);
+    }
+
+    /** The red car at the exit and random vehicles around it, ordered by lane and then by position. */
+    private BitBoard randomGoal(Random random) throws RushHourException {
+        int count = minVehicles + random.nextInt(maxVehicles - minVehicles + 1);
+        boolean[] taken = new boolean[size * size];
+        List<int[]> vehicles = new ArrayList<>(); // {horizontal, lane, length, offset, red}
+
+        boolean exitHorizontal = RushHour.isHorizontalExit(size, exit);
+        int redLane = exitHorizontal ? exit.getRow() : exit.getCol();
+        int exitPosition = exitHorizontal ? exit.getCol() : exit.getRow();
+        int[] red = {exitHorizontal ? 1 : 0, redLane, 2, exitPosition == 0 ? 0 : size - 2, 1};
+        mark(taken, red);
+        vehicles.add(red);
+
+        for (int v = 1; v < count; v++) {
+            for (int t = 0; t < PLACEMENT_TRIES; t++) {
+                boolean horizontal = random.nextBoolean();
+                int lane = random.nextInt(size);
+                if (horizontal == exitHorizontal && lane == redLane) {
+                    continue; // it could only ever sit behind the red car
+                }
+                int length = random.nextDouble() < truckShare && size >= 3 ? 3 : 2;
+                int[] vehicle = {horizontal ? 1 : 0, lane, length, random.nextInt(size - length + 1), 0};
+                if (isFree(taken, vehicle)) {
+                    mark(taken, vehicle);
+                    vehicles.add(vehicle);
+                    break;
+                }
+            }
+        }
+
+        // Vehicles never pass each other in a lane, so this order is the same for every state
+        vehicles.sort(Comparator.<int[]>comparingInt(v -> v[0]).thenComparingInt(v -> v[1]).thenComparingInt(v -> v[3]));
+        int n = vehicles.size();
+        char[] ids = new char[n];
+        boolean[] horizontal = new boolean[n];
+        int[] lengths = new int[n];
+        int[] lanes = new int[n];
+        for (int i = 0; i < n; i++) {
+            int[] v = vehicles.get(i);
+            ids[i] = v[4] == 1 ? 'X' : IDS.charAt(i);
+            horizontal[i] = v[0] == 1;
+            lanes[i] = v[1];
+            lengths[i] = v[2];
+        }
+        BitBoard board = new BitBoard(size, exit, ids, horizontal, lengths, lanes);
+        long key = 0;
+        for (int i = 0; i < n; i++) {
+            key = board.withOffset(key, i, vehicles.get(i)[3]);
+        }
+        board.load(key);
+        return board;
+    }
+
+    private boolean isFree(boolean[] taken, int[] vehicle) {
+        for (int p = vehicle[3]; p < vehicle[3] + vehicle[2]; p++) {
+            if (taken[cell(vehicle, p)]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void mark(boolean[] taken, int[] vehicle) {
+        for (int p = vehicle[3]; p < vehicle[3] + vehicle[2]; p++) {
+            taken[cell(vehicle, p)] = true;
+        }
+    }
+
+    private int cell(int[] vehicle, int position) {
+        return vehicle[0] == 1 ? vehicle[1] * size + position : position * size + vehicle[1];
+    }
+
+    /** Renames the vehicles other than the red car A, B, C... in reading order of their top-left cells. */
+    private RushHour relabel(RushHour rushHour) throws RushHourException {
+        List<Vehicle> vehicles = new ArrayList<>(rushHour.getVehicles());
+        vehicles.sort(Comparator.<Vehicle>comparingInt(v -> Math.min(v.getBack().getRow(), v.getFront().getRow()))
+            .thenComparingInt(v -> Math.min(v.getBack().getCol(), v.getFront().getCol())));
+        RushHour relabelled = new RushHour(size, exit);
+        int next = 0;
+        for (Vehicle v : vehicles) {
+            char id = v.getId() == 'X' ? 'X' : IDS.charAt(next++);
+            relabelled.addVehicle(new Vehicle(id, v.getBack(), v.getFront()));
+        }
+        return relabelled;
+    }
+
+    /** A generated puzzle and the number of moves in its optimal solution. */
+    public static final class GeneratedPuzzle {
+        private final RushHour puzzle;
+        private final int moves;
+
+        GeneratedPuzzle(RushHour puzzle, int moves) {
+            this.puzzle = puzzle;
+            this.moves = moves;
+        }
+
+        public RushHour getPuzzle() {
+            return puzzle;
+        }
+
+        public int getMoves() {
+            return moves;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes puzzles in the data/*.csv format: one {@code id,backRow,backCol,frontRow,frontCol}
+ * line per vehicle. The red car may be written as 'R' (as in the data files) or 'X'.
+ * Boards other than the classic 6x6 one with its exit at (2,5) start with a {@code size,N} line
+ * and an {@code exit,row,col} line.
+ */
+public final class PuzzleReader {
+    private PuzzleReader() {
+    }
+
+    public static RushHour read(Path file) throws IOException, RushHourException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return parse(lines);
+        }
+    }
+
+    /**
+     * Reads the next puzzle from a stream of puzzles separated by blank lines.
+     * Returns null once the stream is exhausted.
+     */
+    public static List<String> nextPuzzle(BufferedReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                if (!lines.isEmpty()) {
+                    return lines;
+                }
+            } else {
+                lines.add(line);
+            }
+        }
+        return lines.isEmpty() ? null : lines;
+    }
+
+    public static RushHour parse(List<String> lines) throws RushHourException {
+        RushHour rushHour = null;
+        int size = RushHour.DEFAULT_SIZE;
+        Position exit = null;
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] fields = trimmed.split(",");
+            String directive = fields[0].trim();
+            if (directive.equals("size") || directive.equals("exit")) {
+                if (rushHour != null) {
+                    throw new RushHourException("Board lines must come before the vehicles: " + line);
+                }
+                try {
+                    if (directive.equals("size") && fields.length == 2) {
+                        size = Integer.parseInt(fields[1].trim());
+                    } else if (directive.equals("exit") && fields.length == 3) {
+                        exit = new Position(Integer.parseInt(fields[1].trim()), Integer.parseInt(fields[2].trim()));
+                    } else {
+                        throw new RushHourException("Malformed board line: " + line);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new RushHourException("Malformed board line: " + line);
+                }
+                continue;
+            }
+            if (rushHour == null) {
+                rushHour = exit == null ? new RushHour(size) : new RushHour(size, exit);
+            }
+            if (fields.length != 5 || fields[0].trim().length() != 1) {
+                throw new RushHourException("Malformed vehicle line: " + line);
+            }
+            char id = fields[0].trim().charAt(0);
+            if (id == 'R') {
+                id = 'X';
+            }
+            try {
+                Position back = new Position(Integer.parseInt(fields[1].trim()), Integer.parseInt(fields[2].trim()));
+                Position front = new Position(Integer.parseInt(fields[3].trim()), Integer.parseInt(fields[4].trim()));
+                rushHour.addVehicle(new Vehicle(id, back, front));
+            } catch (NumberFormatException e) {
+                throw new RushHourException("Malformed vehicle line: " + line);
+            }
+        }
+        if (rushHour == null || rushHour.getRedCar() == null) {
+            throw new RushHourException("Puzzle has no red car.");
+        }
+        return rushHour;
+    }
+
+    public static void write(RushHour rushHour, Writer out) throws IOException {
+        Position exit = rushHour.getExit();
+        if (!rushHour.isClassicBoard()) {
+            out.write("size," + rushHour.getSize() + "\n");
+            out.write("exit," + exit.getRow() + "," + exit.getCol() + "\n");
+        }
+        for (Vehicle v : rushHour.getVehicles()) {
+            out.write(v.getId() + "," + v.getBack().getRow() + "," + v.getBack().getCol() + ","
+                + v.getFront().getRow() + "," + v.getFront().getCol() + "\n");
+        }
+    }
+}
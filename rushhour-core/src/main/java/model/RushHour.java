@@ -0,0 +1,261 @@
+package model;
+
+import java.util.*;
+
+public class RushHour {
+    public static final int DEFAULT_SIZE = 6;
+    private static final int DEFAULT_EXIT_ROW = 2;
+    private static final int DEFAULT_EXIT_COL = 5;
+
+    private final int size;
+    private final Position exit;
+    private final List<Vehicle> vehicles = new ArrayList<>();
+    private final List<RushHourObserver> observers = new ArrayList<>();
+    private int moveCount = 0;
+
+    public RushHour() {
+        this.size = DEFAULT_SIZE;
+        this.exit = new Position(DEFAULT_EXIT_ROW, DEFAULT_EXIT_COL);
+    }
+
+    /** An empty {@code size} x {@code size} board with the exit on the right edge, as on the 6x6 board. */
+    public RushHour(int size) throws RushHourException {
+        this(size, new Position((size - 1) / 2, size - 1));
+    }
+
+    /** An empty {@code size} x {@code size} board whose exit is the border cell {@code exit}. */
+    public RushHour(int size, Position exit) throws RushHourException {
+        if (size < 2 || size > BitBoard.MAX_SIZE) {
+            throw new RushHourException("Board size must be between 2 and " + BitBoard.MAX_SIZE + ".");
+        }
+        int row = exit.getRow();
+        int col = exit.getCol();
+        boolean inside = row >= 0 && row < size && col >= 0 && col < size;
+        if (!inside || (row != 0 && row != size - 1 && col != 0 && col != size - 1)) {
+            throw new RushHourException("The exit must be a cell on the edge of the board.");
+        }
+        this.size = size;
+        this.exit = new Position(row, col);
+    }
+
+    public RushHour(RushHour other) {
+        this.size = other.size;
+        this.exit = other.exit;
+        this.moveCount = other.moveCount;
+        for (Vehicle original : other.vehicles) {
+            Position backCopy = new Position(
+                original.getBack().getRow(),
+                original.getBack().getCol()
+            );
+            Position frontCopy = new Position(
+                original.getFront().getRow(),
+                original.getFront().getCol()
+            );
+            
+            Vehicle vehicleCopy = new Vehicle(
+                original.getId(),
+                backCopy,
+                frontCopy
+            );
+            this.vehicles.add(vehicleCopy);
+        }
+
+    }
+
+    public void addObserver(RushHourObserver observer) {
+        observers.add(observer);
+    }
+
+    private void notifyObservers() {
+        for (RushHourObserver observer : observers) {
+            observer.boardChanged();
+        }
+    }
+
+    private void notifyVehicleMoved(Vehicle vehicle) {
+        for (RushHourObserver observer : observers) {
+            observer.vehicleMoved(vehicle);
+        }
+    }
+
+    public void addVehicle(Vehicle vehicle) throws RushHourException {
+        for (Vehicle v : vehicles) {
+            if (v.getId() == vehicle.getId()) {
+                throw new RushHourException("Vehicle with this ID already exists.");
+            }
+        }
+        vehicles.add(vehicle);
+        notifyObservers();
+    }
+
+    public List<Vehicle> getVehicles() {
+        return Collections.unmodifiableList(vehicles);
+    }
+
+    public Vehicle getVehicle(char id) throws RushHourException {
+        int index = indexOf(id);
+        if (index < 0) {
+            throw new RushHourException("Vehicle not found.");
+        }
+        return vehicles.get(index);
+    }
+
+    public int getVehicleCount() {
+        return vehicles.size();
+    }
+
+    /** The vehicle at {@code index} in getVehicles(). */
+    public Vehicle getVehicle(int index) {
+        return vehicles.get(index);
+    }
+
+    /** Index of the vehicle in getVehicles(), or -1 if there is none with this id. */
+    public int indexOf(char id) {
+        for (int i = 0; i < vehicles.size(); i++) {
+            if (vehicles.get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public Vehicle getRedCar() {
+        int index = indexOf('X'); // Assuming 'X' is the red car's ID
+        return index < 0 ? null : vehicles.get(index);
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public void reset() {
+        vehicles.clear();
+        moveCount = 0;
+        notifyObservers();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Position getExit() {
+        return new Position(exit.getRow(), exit.getCol());
+    }
+
+    /** True for the 6x6 board with its exit at (2,5), which needs no size or exit in puzzle files. */
+    public boolean isClassicBoard() {
+        return size == DEFAULT_SIZE && exit.getRow() == DEFAULT_EXIT_ROW && exit.getCol() == DEFAULT_EXIT_COL;
+    }
+
+    /** True when the red car leaves through the left or right edge, so it has to be horizontal. */
+    public boolean isExitHorizontal() {
+        return isHorizontalExit(size, exit);
+    }
+
+    /** Exits on a side edge are left horizontally; a corner counts as a side edge. */
+    static boolean isHorizontalExit(int size, Position exit) {
+        return exit.getCol() == 0 || exit.getCol() == size - 1;
+    }
+
+    /** True when the red car covers the exit, lying along the direction it leaves in. */
+    public boolean isGameOver() {
+        Vehicle red = getRedCar();
+        if (red == null || red.isHorizontal() != isExitHorizontal()) {
+            return false;
+        }
+        for (Position p : red.getOccupiedPositions()) {
+            if (p.equals(exit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean canMove(char vehicleId, Direction direction) {
+        return canMove(vehicleId, direction, 1);
+    }
+
+    /** True when the vehicle can slide {@code distance} cells, passing only through free cells. */
+    public boolean canMove(char vehicleId, Direction direction, int distance) {
+        int index = indexOf(vehicleId);
+        return index >= 0 && canMove(index, direction, distance);
+    }
+
+    /** canMove for the vehicle at {@code index} in getVehicles(); allocates nothing. */
+    public boolean canMove(int index, Direction direction, int distance) {
+        if (distance < 1) {
+            return false;
+        }
+        Vehicle vehicle = vehicles.get(index);
+
+        // Vehicles only slide along their own axis
+        boolean horizontalMove = direction == Direction.LEFT || direction == Direction.RIGHT;
+        if (vehicle.isHorizontal() != horizontalMove) {
+            return false;
+        }
+
+        // Only the cells the leading end sweeps over can be taken; the rest of the slide is the vehicle's own
+        Position back = vehicle.getBack();
+        Position front = vehicle.getFront();
+        int rowStep = direction == Direction.UP ? -1 : direction == Direction.DOWN ? 1 : 0;
+        int colStep = direction == Direction.LEFT ? -1 : direction == Direction.RIGHT ? 1 : 0;
+        int row = rowStep < 0 ? Math.min(back.getRow(), front.getRow()) : Math.max(back.getRow(), front.getRow());
+        int col = colStep < 0 ? Math.min(back.getCol(), front.getCol()) : Math.max(back.getCol(), front.getCol());
+        for (int step = 1; step <= distance; step++) {
+            row += rowStep;
+            col += colStep;
+            if (row < 0 || row >= size || col < 0 || col >= size || isCoveredByOther(index, row, col)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void moveVehicle(char vehicleId, Direction direction) throws RushHourException {
+        moveVehicle(vehicleId, direction, 1);
+    }
+
+    /** Slides a vehicle {@code distance} cells; the whole slide counts as one move. */
+    public void moveVehicle(char vehicleId, Direction direction, int distance) throws RushHourException {
+        // Find the vehicle by its ID
+        int index = indexOf(vehicleId);
+        if (index < 0) {
+            throw new RushHourException("Vehicle not found.");
+        }
+        Vehicle vehicle = vehicles.get(index);
+    
+        // Check if the move is valid
+        if (!canMove(index, direction, distance)) {
+            throw new RushHourException("Invalid move for vehicle " + vehicleId + " in direction " + direction
+                + (distance == 1 ? "" : " by " + distance));
+        }
+    
+        // Move the vehicle
+        vehicle.move(direction, distance);
+    
+        // Increment the move count
+        moveCount++;
+    
+        // Notify observers about the moved vehicle
+        notifyVehicleMoved(vehicle);
+    }
+    
+    private boolean isCoveredByOther(int index, int row, int col) {
+        for (int i = 0; i < vehicles.size(); i++) {
+            if (i != index && overlaps(vehicles.get(i), row, col)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean overlaps(Vehicle vehicle, int row, int col) {
+        // Either end may be the one with the lower row or column
+        Position front = vehicle.getFront();
+        Position back = vehicle.getBack();
+        if (row < Math.min(back.getRow(), front.getRow()) || row > Math.max(back.getRow(), front.getRow())) {
+            return false;
+        }
+        return col >= Math.min(back.getCol(), front.getCol()) && col <= Math.max(back.getCol(), front.getCol());
+    }
+}
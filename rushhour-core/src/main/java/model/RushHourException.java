@@ -2,6 +2,6 @@ package model;
 /** @author Laura Babic */
 public class RushHourException extends Exception {
     public RushHourException(String message) {
-        super("ERROR");
+        super(message);
     }
 }
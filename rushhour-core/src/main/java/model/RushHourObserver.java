@@ -0,0 +1,11 @@
+
+package model;
+
+public interface RushHourObserver {
+    void boardChanged(); 
+
+    // a single vehicle moved; observers that only redraw that vehicle can override this
+    default void vehicleMoved(Vehicle vehicle) {
+        boardChanged();
+    }
+}
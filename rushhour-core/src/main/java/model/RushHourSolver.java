@@ -0,0 +1,135 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class RushHourSolver {
+    public RushHour rushHour;
+    private List<Move> moves; // Use List to preserve move order
+
+    public RushHourSolver(RushHour rsh) {
+        this(rsh, new ArrayList<>());
+    }
+
+    // Constructor for successors and engine results
+    RushHourSolver(RushHour rsh, List<Move> moves) {
+        this.rushHour = new RushHour(rsh); // Use deep copy constructor
+        this.moves = new ArrayList<>(moves); // Copy existing moves
+    }
+
+    public Collection<RushHourSolver> getSuccessors() throws RushHourException {
+        return getSuccessors(MoveMetric.CELLS);
+    }
+
+    /** One successor per one-cell step, or with SLIDES per free slide distance. */
+    public Collection<RushHourSolver> getSuccessors(MoveMetric metric) throws RushHourException {
+        List<RushHourSolver> successors = new ArrayList<>();
+        List<Vehicle> vehicles = rushHour.getVehicles();
+        int maxDistance = metric == MoveMetric.SLIDES ? rushHour.getSize() - 1 : 1;
+
+        for (int i = 0; i < vehicles.size(); i++) {
+            Vehicle vehicle = vehicles.get(i);
+            // Check all possible directions for this vehicle
+            for (Direction dir : Direction.values()) {
+                for (int distance = 1; distance <= maxDistance && rushHour.canMove(i, dir, distance);
+                     distance++) {
+                    // Create a new RushHour state with the move applied
+                    RushHour newState = new RushHour(this.rushHour);
+                    newState.moveVehicle(vehicle.getId(), dir, distance);
+
+                    // Create a new move list
+                    List<Move> newMoves = new ArrayList<>(this.moves);
+                    newMoves.add(new Move(vehicle.getId(), dir, distance));
+
+                    // Add the new configuration
+                    successors.add(new RushHourSolver(newState, newMoves));
+                }
+            }
+        }
+        return successors;
+    }
+
+    public boolean isValid() {
+        Set<Position> occupied = new HashSet<>();
+        int boardSize = rushHour.getSize();
+
+        for (Vehicle v : rushHour.getVehicles()) {
+            // Check all positions occupied by the vehicle
+            for (Position p : v.getOccupiedPositions()) {
+                // Boundary check
+                if (p.getRow() < 0 || p.getRow() >= boardSize || 
+                    p.getCol() < 0 || p.getCol() >= boardSize) {
+                    return false;
+                }
+                // Overlap check
+                if (!occupied.add(p)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean isGoal() {
+        return rushHour.isGameOver();
+    }
+
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /** Returns the configuration reached by playing {@code path} after this one's moves. */
+    RushHourSolver followedBy(List<Move> path) throws RushHourException {
+        RushHour end = new RushHour(rushHour);
+        List<Move> allMoves = new ArrayList<>(moves);
+        for (Move move : path) {
+            end.moveVehicle(move.getVehicleId(), move.getDirection(), move.getDistance());
+            allMoves.add(move);
+        }
+        return new RushHourSolver(end, allMoves);
+    }
+
+    // Two configurations are equal when their vehicles stand in the same places, whatever the moves
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RushHourSolver)) return false;
+        List<Vehicle> mine = rushHour.getVehicles();
+        List<Vehicle> theirs = ((RushHourSolver) o).rushHour.getVehicles();
+        if (mine.size() != theirs.size()) return false;
+        for (int i = 0; i < mine.size(); i++) {
+            Vehicle a = mine.get(i);
+            Vehicle b = theirs.get(i);
+            if (a.getId() != b.getId() || !a.getBack().equals(b.getBack()) || !a.getFront().equals(b.getFront())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (Vehicle v : rushHour.getVehicles()) {
+            hash = 31 * hash + v.getId();
+            hash = 31 * hash + v.getBack().hashCode();
+        }
+        return hash;
+    }
+
+    // Answers repeated boards from the shared cache, see SolutionCache.getDefault
+    public static RushHourSolver solve(RushHour game) throws RushHourException {
+        return solve(game, new CachingSolver(SolutionCache.getDefault(), new BreadthFirstSolver()));
+    }
+
+    public static RushHourSolver solve(RushHour game, SolverEngine engine) throws RushHourException {
+        RushHourSolver initialConfig = new RushHourSolver(game);
+        return engine.solve(initialConfig);
+    }
+    public RushHour RushHour(){
+        return rushHour;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package model;
+
+/** Thrown by a solve that stopped before finishing because a SearchLimits budget ran out. */
+public class SearchAbortedException extends RushHourException {
+    public enum Reason {
+        CANCELLED,
+        TIME_LIMIT,
+        MEMORY_LIMIT
+    }
+
+    private final Reason reason;
+
+    public SearchAbortedException(Reason reason) {
+        super("Search stopped: " + reason.name().toLowerCase().replace('_', ' '));
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
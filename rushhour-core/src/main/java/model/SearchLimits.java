@@ -0,0 +1,45 @@
+package model;
+
+/**
+ * Time, memory and cancellation limits for one solve. Engines poll them every
+ * few hundred expansions; cancel() may be called from any thread.
+ */
+public class SearchLimits {
+    /** Rough heap cost of one visited state: table slot with slack plus its frontier entry. */
+    public static final long BYTES_PER_STATE = 32;
+
+    private final long deadlineNanos;
+    private final long maxStates;
+    private volatile boolean cancelled;
+
+    /**
+     * @param timeLimitMillis wall-clock budget from now, or 0 for none
+     * @param memoryBudgetBytes heap the search may fill with states, or 0 for none
+     */
+    public SearchLimits(long timeLimitMillis, long memoryBudgetBytes) {
+        this.deadlineNanos = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1_000_000 : 0;
+        this.maxStates = memoryBudgetBytes > 0 ? memoryBudgetBytes / BYTES_PER_STATE : 0;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Returns why the search has to stop, or null if it may go on. */
+    public SearchAbortedException.Reason exceeded(long statesHeld) {
+        if (cancelled) {
+            return SearchAbortedException.Reason.CANCELLED;
+        }
+        if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0) {
+            return SearchAbortedException.Reason.TIME_LIMIT;
+        }
+        if (maxStates != 0 && statesHeld > maxStates) {
+            return SearchAbortedException.Reason.MEMORY_LIMIT;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,318 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of solutions keyed by vehicle layout.
+ * A recorded solution also fills in every state along its path with the rest of the path, so
+ * replaying part of a solved board or solving a board on the way is a hit. Boards without a
+ * solution are remembered too. Holds at most maxEntries states and can be saved to a text file
+ * (one {@code key<TAB>moves} line per state, "-" for no solution) and loaded back.
+ * Solutions counted in slides are kept apart from those counted in cells, under keys with an
+ * "S:" prefix. Keys and stored moves use CanonicalLabels rather than the board's own ids, so a board
+ * whose same-shaped vehicles are labelled the other way round hits the same entry and gets the
+ * moves back in its own ids.
+ */
+public class SolutionCache {
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private static final String NO_SOLUTION = "-";
+    private static final String SLIDES_PREFIX = "S:";
+    private static SolutionCache defaultCache;
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Suffix> entries;
+
+    public SolutionCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        // Access order makes the eldest entry the least recently used one
+        this.entries = new LinkedHashMap<String, Suffix>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Suffix> eldest) {
+                return size() > SolutionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The process-wide cache used by {@link RushHourSolver#solve(RushHour)}, sized by
+     * -Drushhour.cache.entries and loaded from -Drushhour.cache.file when that is set.
+     */
+    public static synchronized SolutionCache getDefault() {
+        if (defaultCache == null) {
+            defaultCache = new SolutionCache(Integer.getInteger("rushhour.cache.entries", DEFAULT_MAX_ENTRIES));
+            String file = System.getProperty("rushhour.cache.file");
+            if (file != null) {
+                try {
+                    defaultCache.load(Paths.get(file));
+                } catch (IOException | RushHourException e) {
+                    System.err.println("Ignoring solution cache " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        return defaultCache;
+    }
+
+    /** Writes the default cache back to -Drushhour.cache.file, if it was used and a file is set. */
+    public static void saveDefault() throws IOException {
+        String file = System.getProperty("rushhour.cache.file");
+        SolutionCache cache;
+        synchronized (SolutionCache.class) {
+            cache = defaultCache;
+        }
+        if (file != null && cache != null) {
+            cache.save(Paths.get(file));
+        }
+    }
+
+    /**
+     * Canonical key of a layout: id, back row, back col, front row and front col of every vehicle,
+     * ordered by id so that the order vehicles were added in does not matter. The ids are the
+     * board's CanonicalLabels, so neither do the ids given to same-shaped vehicles. Boards other
+     * than the classic one start with their size and exit, as in {@code 8x8@3,7:}.
+     */
+    public static String keyOf(RushHour rushHour) {
+        return keyOf(rushHour, CanonicalLabels.of(rushHour));
+    }
+
+    /**
+     * {@code moves}, given in the ids of {@code from}, in the ids of {@code to}. The boards must
+     * have the same keyOf, so each vehicle of one stands where a vehicle of the other does.
+     */
+    public static List<Move> relabel(List<Move> moves, RushHour from, RushHour to) {
+        CanonicalLabels fromLabels = CanonicalLabels.of(from);
+        CanonicalLabels toLabels = CanonicalLabels.of(to);
+        if (fromLabels.isIdentity() && toLabels.isIdentity()) {
+            return moves;
+        }
+        List<Move> relabelled = new ArrayList<>(moves.size());
+        for (Move move : moves) {
+            relabelled.add(toLabels.toOriginal(fromLabels.toCanonical(move)));
+        }
+        return relabelled;
+    }
+
+    /** The key of {@code rushHour} with its vehicles renamed by {@code labels}. */
+    private static String keyOf(RushHour rushHour, CanonicalLabels labels) {
+        List<Vehicle> vehicles = new ArrayList<>(rushHour.getVehicles());
+        vehicles.sort(Comparator.comparing(v -> labels.toCanonical(v.getId())));
+        StringBuilder key = new StringBuilder(vehicles.size() * 5 + 12);
+        if (!rushHour.isClassicBoard()) {
+            Position exit = rushHour.getExit();
+            key.append(rushHour.getSize()).append('x').append(rushHour.getSize())
+                .append('@').append(exit.getRow()).append(',').append(exit.getCol()).append(':');
+        }
+        for (Vehicle v : vehicles) {
+            key.append(labels.toCanonical(v.getId()))
+                .append((char) ('0' + v.getBack().getRow())).append((char) ('0' + v.getBack().getCol()))
+                .append((char) ('0' + v.getFront().getRow())).append((char) ('0' + v.getFront().getCol()));
+        }
+        return key.toString();
+    }
+
+    private static String keyOf(RushHour rushHour, CanonicalLabels labels, MoveMetric metric) {
+        String key = keyOf(rushHour, labels);
+        return metric == MoveMetric.SLIDES ? SLIDES_PREFIX + key : key;
+    }
+
+    private static String keyOf(RushHour rushHour, MoveMetric metric) {
+        return keyOf(rushHour, CanonicalLabels.of(rushHour), metric);
+    }
+
+    /** True when the cache knows whether {@code rushHour} can be solved. */
+    public synchronized boolean contains(RushHour rushHour) {
+        return contains(rushHour, MoveMetric.CELLS);
+    }
+
+    public synchronized boolean contains(RushHour rushHour, MoveMetric metric) {
+        return entries.containsKey(keyOf(rushHour, metric));
+    }
+
+    /** The remaining solution from {@code rushHour}, or null when it is unknown or has none. */
+    public synchronized List<Move> get(RushHour rushHour) {
+        return get(rushHour, MoveMetric.CELLS);
+    }
+
+    public List<Move> get(RushHour rushHour, MoveMetric metric) {
+        Suffix suffix = lookup(rushHour, metric);
+        return suffix == null ? null : suffix.moves();
+    }
+
+    /** The entry for {@code rushHour} with its moves in the board's own ids. */
+    Suffix lookup(RushHour rushHour, MoveMetric metric) {
+        CanonicalLabels labels = CanonicalLabels.of(rushHour);
+        String key = keyOf(rushHour, labels, metric);
+        Suffix suffix;
+        synchronized (this) {
+            suffix = entries.get(key);
+        }
+        if (suffix == null || !suffix.isSolvable() || labels.isIdentity()) {
+            return suffix;
+        }
+        Move[] path = new Move[suffix.length()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = labels.toOriginal(suffix.path[suffix.from + i]);
+        }
+        return new Suffix(path, 0);
+    }
+
+    public void put(RushHour start, List<Move> solution) throws RushHourException {
+        put(start, solution, MoveMetric.CELLS);
+    }
+
+    /**
+     * Records {@code solution} from {@code start} and the rest of it from every state it passes,
+     * keeping an existing entry when that one is shorter.
+     */
+    public void put(RushHour start, List<Move> solution, MoveMetric metric) throws RushHourException {
+        // One renaming holds along the whole path, and the stored moves use it too
+        CanonicalLabels labels = CanonicalLabels.of(start);
+        Move[] path = new Move[solution.size()];
+        List<String> keys = new ArrayList<>(path.length + 1);
+        RushHour state = new RushHour(start);
+        keys.add(keyOf(state, labels, metric));
+        for (int i = 0; i < path.length; i++) {
+            Move move = solution.get(i);
+            state.moveVehicle(move.getVehicleId(), move.getDirection(), move.getDistance());
+            keys.add(keyOf(state, labels, metric));
+            path[i] = labels.toCanonical(move);
+        }
+        synchronized (this) {
+            // Later states go in first so the start ends up the most recently used
+            for (int i = keys.size() - 1; i >= 0; i--) {
+                Suffix existing = entries.get(keys.get(i));
+                if (existing == null || existing.length() > path.length - i) {
+                    entries.put(keys.get(i), new Suffix(path, i));
+                }
+            }
+        }
+    }
+
+    public synchronized void putUnsolvable(RushHour start) {
+        putUnsolvable(start, MoveMetric.CELLS);
+    }
+
+    public synchronized void putUnsolvable(RushHour start, MoveMetric metric) {
+        entries.put(keyOf(start, metric), Suffix.NONE);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /** Writes every entry, least recently used first, replacing {@code file} atomically. */
+    public void save(Path file) throws IOException {
+        List<Map.Entry<String, Suffix>> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(entries.entrySet());
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Suffix> entry : snapshot) {
+                    out.write(entry.getKey());
+                    out.write('\t');
+                    out.write(entry.getValue().toString());
+                    out.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Adds the entries saved in {@code file}; a missing file leaves the cache as it is. */
+    public void load(Path file) throws IOException, RushHourException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new RushHourException("Malformed cache line: " + line);
+                }
+                String key = line.substring(0, tab);
+                String moves = line.substring(tab + 1);
+                Suffix suffix;
+                if (NO_SOLUTION.equals(moves)) {
+                    suffix = Suffix.NONE;
+                } else {
+                    String[] tokens = moves.isEmpty() ? new String[0] : moves.split(" ");
+                    Move[] path = new Move[tokens.length];
+                    for (int i = 0; i < tokens.length; i++) {
+                        path[i] = Move.parse(tokens[i]);
+                    }
+                    suffix = new Suffix(path, 0);
+                }
+                synchronized (this) {
+                    entries.put(key, suffix);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // nothing saved yet
+        }
+    }
+
+    /** The tail of a shared solution path starting at {@code from}; NONE marks a board without one. */
+    static final class Suffix {
+        static final Suffix NONE = new Suffix(null, 0);
+
+        private final Move[] path;
+        private final int from;
+
+        Suffix(Move[] path, int from) {
+            this.path = path;
+            this.from = from;
+        }
+
+        boolean isSolvable() {
+            return path != null;
+        }
+
+        int length() {
+            return path == null ? Integer.MAX_VALUE : path.length - from;
+        }
+
+        List<Move> moves() {
+            return path == null ? null : Collections.unmodifiableList(Arrays.asList(path).subList(from, path.length));
+        }
+
+        @Override
+        public String toString() {
+            if (path == null) {
+                return NO_SOLUTION;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = from; i < path.length; i++) {
+                if (i > from) {
+                    sb.append(' ');
+                }
+                sb.append(path[i]);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight Recorder event spanning one solve, committed with its final metrics. */
+@Name("rushhour.Solve")
+@Label("Solve")
+@Category("Rush Hour")
+@Description("One call to a solver engine")
+class SolveEvent extends Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Solved")
+    boolean solved;
+
+    @Label("Solution Length")
+    int solutionLength;
+
+    @Label("States Expanded")
+    long statesExpanded;
+
+    @Label("States Generated")
+    long statesGenerated;
+
+    @Label("Duplicates Pruned")
+    long duplicatesPruned;
+
+    @Label("Peak Frontier")
+    long peakFrontier;
+
+    @Label("Peak Visited")
+    long peakVisited;
+}
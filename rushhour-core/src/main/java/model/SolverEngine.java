@@ -0,0 +1,28 @@
+package model;
+
+/** A search strategy that turns a starting configuration into a solved one. */
+public interface SolverEngine {
+    /**
+     * Searches for a goal configuration reachable from {@code config}.
+     * Returns the solved configuration (with its move list), or null when there is none.
+     */
+    RushHourSolver solve(RushHourSolver config) throws RushHourException;
+
+    /** What the engine's solutions are shortest in. */
+    default MoveMetric getMetric() {
+        return MoveMetric.CELLS;
+    }
+
+    /**
+     * Whether a null from solve proves there is no solution. Engines that give up past a depth cap
+     * return null for boards they never finished, so callers must not record that as an answer.
+     */
+    default boolean isComplete() {
+        return true;
+    }
+
+    /** Number of states the most recent solve expanded. */
+    default long getNodesExpanded() {
+        return 0;
+    }
+}
@@ -0,0 +1,14 @@
+package model;
+
+/** Receives progress from an engine while it searches. Callbacks run on the searching thread. */
+public interface SolverListener {
+    /** Called every few thousand expanded states. */
+    default void onProgress(SolverMetrics metrics) {
+    }
+
+    default void onSolutionFound(SolverMetrics metrics) {
+    }
+
+    default void onFinished(SolverMetrics metrics, RushHourSolver result) {
+    }
+}
@@ -0,0 +1,109 @@
+package model;
+
+/**
+ * Counters for one solve. Engines bump plain fields from their search loop, so keeping them
+ * costs a few increments per node; listeners and JFR events only read them at checkpoints.
+ */
+public class SolverMetrics {
+    private long statesGenerated;
+    private long statesExpanded;
+    private long duplicatesPruned;
+    private long peakFrontier;
+    private long peakVisited;
+    private long startNanos;
+    private long firstSolutionNanos;
+    private long endNanos;
+
+    void reset() {
+        statesGenerated = 0;
+        statesExpanded = 0;
+        duplicatesPruned = 0;
+        peakFrontier = 0;
+        peakVisited = 0;
+        startNanos = System.nanoTime();
+        firstSolutionNanos = 0;
+        endNanos = 0;
+    }
+
+    void expanded(long states) {
+        statesExpanded += states;
+    }
+
+    void generated(long states) {
+        statesGenerated += states;
+    }
+
+    void pruned(long duplicates) {
+        duplicatesPruned += duplicates;
+    }
+
+    void frontier(long size) {
+        if (size > peakFrontier) {
+            peakFrontier = size;
+        }
+    }
+
+    void visited(long size) {
+        if (size > peakVisited) {
+            peakVisited = size;
+        }
+    }
+
+    void solutionFound() {
+        if (firstSolutionNanos == 0) {
+            firstSolutionNanos = System.nanoTime();
+        }
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    public long getStatesGenerated() {
+        return statesGenerated;
+    }
+
+    public long getStatesExpanded() {
+        return statesExpanded;
+    }
+
+    public long getDuplicatesPruned() {
+        return duplicatesPruned;
+    }
+
+    public long getPeakFrontier() {
+        return peakFrontier;
+    }
+
+    public long getPeakVisited() {
+        return peakVisited;
+    }
+
+    /** Successors generated per expanded state. */
+    public double getAverageBranchingFactor() {
+        return statesExpanded == 0 ? 0 : (double) statesGenerated / statesExpanded;
+    }
+
+    /** Time since the solve started, or its total time once it has finished. */
+    public long getElapsedNanos() {
+        return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    public double getStatesPerSecond() {
+        long elapsed = getElapsedNanos();
+        return elapsed == 0 ? 0 : statesExpanded * 1e9 / elapsed;
+    }
+
+    /** Nanoseconds until the first goal was reached, or -1 if none was. */
+    public long getTimeToFirstSolutionNanos() {
+        return firstSolutionNanos == 0 ? -1 : firstSolutionNanos - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.ROOT,
+            "expanded=%d generated=%d duplicates=%d peakFrontier=%d peakVisited=%d branching=%.2f states/s=%.0f",
+            statesExpanded, statesGenerated, duplicatesPruned, peakFrontier, peakVisited,
+            getAverageBranchingFactor(), getStatesPerSecond());
+    }
+}
@@ -0,0 +1,24 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight Recorder sample of a running solve, emitted at the engine's progress checkpoints. */
+@Name("rushhour.SolverProgress")
+@Label("Solver Progress")
+@Category("Rush Hour")
+class SolverProgressEvent extends Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("States Expanded")
+    long statesExpanded;
+
+    @Label("Visited")
+    long peakVisited;
+
+    @Label("Frontier")
+    long peakFrontier;
+}
@@ -0,0 +1,25 @@
+package model;
+
+/**
+ * Packs a board into a single long: vehicle i's back position along its lane (column if
+ * horizontal, row if vertical) in as many bits as its lane has positions to tell apart, after
+ * those of vehicles 0..i-1. A 6x6 car needs 3 bits, a 10x10 truck 3, a 10x10 car 4.
+ * Ids, orientation and lane are fixed for a puzzle, so a template board is enough to decode;
+ * BitBoard.offset reads a single vehicle back out.
+ */
+public final class StateCodec {
+
+    private StateCodec() {
+    }
+
+    public static long encode(RushHour rushHour) throws RushHourException {
+        return new BitBoard(rushHour).getKey();
+    }
+
+    /** Rebuilds the board {@code key} describes, taking ids and lanes from {@code template}. */
+    public static RushHour decode(long key, RushHour template) throws RushHourException {
+        BitBoard board = new BitBoard(template);
+        board.load(key);
+        return board.toRushHour();
+    }
+}
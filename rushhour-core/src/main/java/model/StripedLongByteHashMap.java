@@ -0,0 +1,46 @@
+package model;
+
+/**
+ * Thread-safe LongByteHashMap split into independently locked stripes, so threads
+ * deduplicating different states rarely wait on each other.
+ */
+public class StripedLongByteHashMap {
+    private static final int STRIPE_BITS = 6;
+
+    private final LongByteHashMap[] stripes = new LongByteHashMap[1 << STRIPE_BITS];
+
+    public StripedLongByteHashMap() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new LongByteHashMap();
+        }
+    }
+
+    public boolean putIfAbsent(long key, int value) {
+        LongByteHashMap stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.putIfAbsent(key, value);
+        }
+    }
+
+    public int get(long key) {
+        LongByteHashMap stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (LongByteHashMap stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private LongByteHashMap stripeFor(long key) {
+        // Top bits of the mixed hash, so stripe choice is independent of the slot inside it
+        return stripes[(int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - STRIPE_BITS))];
+    }
+}
@@ -52,24 +52,27 @@ public class Vehicle {
             }
         }
     }
+    public void move(Direction direction, int distance) {
+        for (int i = 0; i < distance; i++) {
+            move(direction);
+        }
+    }
+
+    /** Number of cells the vehicle covers: 2 for a car, 3 for a truck. */
+    public int getLength() {
+        return isHorizontal ? Math.abs(front.col - back.col) + 1 : Math.abs(front.row - back.row) + 1;
+    }
+
+    /** Covered cells from the top-left one to the bottom-right one, whichever end is the front. */
     public List<Position> getOccupiedPositions() {
-    List<Position> positions = new ArrayList<>();
-    Position back = getBack();
-    int size = 2;
+        List<Position> positions = new ArrayList<>();
+        int length = getLength();
+        int row = Math.min(back.getRow(), front.getRow());
+        int col = Math.min(back.getCol(), front.getCol());
 
-    if (isHorizontal()) {
-        int row = back.getRow();
-        int startCol = back.getCol();
-        for (int i = 0; i < size; i++) {
-            positions.add(new Position(row, startCol + i));
-        }
-    } else { // vertical
-        int col = back.getCol();
-        int startRow = back.getRow();
-        for (int i = 0; i < size; i++) {
-            positions.add(new Position(startRow + i, col));
+        for (int i = 0; i < length; i++) {
+            positions.add(isHorizontal ? new Position(row, col + i) : new Position(row + i, col));
         }
+        return positions;
     }
-    return positions;
-}
 }
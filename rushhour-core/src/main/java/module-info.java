@@ -0,0 +1,8 @@
+/** Board model, solver engines and the headless command-line tools; needs nothing beyond the JDK. */
+module rushhour.core {
+    requires jdk.jfr;
+    requires jdk.httpserver;
+
+    exports model;
+    exports cli;
+}
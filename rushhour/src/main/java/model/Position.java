@@ -1,19 +0,0 @@
-package model;
-
-public class Position {
-    public int row;
-    public int col;
-
-    public Position(int row, int col) {
-        this.row = row;
-        this.col = col;
-    }
-
-    public int getRow() {
-        return row;
-    }
-
-    public int getCol() {
-        return col;
-    }
-}
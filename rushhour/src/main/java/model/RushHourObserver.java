@@ -1,7 +0,0 @@
-
-package model;
-
-public interface RushHourObserver {
-    void boardChanged(); 
-}
-
@@ -0,0 +1,7 @@
+/** The JavaFX game; everything it solves with comes from rushhour.core. */
+module rushhour.view {
+    requires rushhour.core;
+    requires javafx.controls;
+
+    exports view to javafx.graphics;
+}
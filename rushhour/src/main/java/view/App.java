@@ -1,7 +1,10 @@
 package view;
 //** @author Marko Krznar */
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -9,6 +12,7 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
@@ -16,25 +20,75 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import model.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class App extends Application {
     private Label statusLabel; 
     private Label moveCountLabel; 
-    private GridPane gameBoard; // 6x6 board
+    private GridPane gameBoard; // size x size board
     private RushHour game;
     private Vehicle selectedVehicle; //  selected vehicle
-    private final int EXIT_ROW = 2; // row where the exit is located
-    private final int EXIT_COL = 5; // column where the exit is located
+    // solver budget, configurable with -Drushhour.solve.seconds=... and -Drushhour.solve.memoryMb=...;
+    // the memory budget is the heap a solve fills before it spills to disk
+    private static final long SOLVE_SECONDS = Long.getLong("rushhour.solve.seconds", 30);
+    private static final long SOLVE_MEMORY_MB = Long.getLong("rushhour.solve.memoryMb", 512);
+    // -Drushhour.solve.metric=slides makes Solve find the fewest slides instead of the fewest cells
+    private static final MoveMetric SOLVE_METRIC = solveMetric();
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L; // at most four status updates a second
+    private static final int CELL_SIZE = 60;
+    private static final int GAP = 1;
+    private static final Duration REPLAY_STEP = Duration.millis(150); // delay between replayed solution moves
+
+    // one node per vehicle, created once and moved around the grid afterwards
+    private final Map<Character, Rectangle> vehicleNodes = new HashMap<>();
+
+    // background thread for solving, so the FX thread keeps rendering
+    private final ExecutorService solverExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "rushhour-solver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private SearchLimits solveLimits; // limits of the running solve, null when idle
+    // the running solve, hint and replay, null when idle; a new game stops all three
+    private Task<RushHourSolver> solveTask;
+    private Task<Move> hintTask;
+    private Timeline replayTimeline;
+    // bumped on every change to the board, so a background result can tell its snapshot is stale
+    private long boardVersion;
+    // keeps its distance labels between moves; only used on the solver thread. Counts moves like
+    // Solve does, so a hint starts the solution Solve would play
+    private final HintEngine hintEngine = new HintEngine(SOLVE_METRIC);
+    private HBox buttonBox;
+    private HBox newGameBox;
+    private Button cancelButton;
+    // graded puzzles for this board, from -Drushhour.corpus=FILE or the bundled puzzles.txt; null if none
+    private PuzzleCorpus corpus;
+    private ComboBox<Integer> difficultyBox;
+    private final Random random = new Random();
 
     @Override
     public void start(Stage stage) {
         // intializing the game logic
         game = new RushHour();
+        corpus = loadCorpus();
 
         // creating the main layout
         VBox root = new VBox(10);
@@ -51,63 +105,85 @@ public class App extends Application {
 
         // game board
         gameBoard = new GridPane();
-        gameBoard.setHgap(1);
-        gameBoard.setVgap(1);
+        gameBoard.setHgap(GAP);
+        gameBoard.setVgap(GAP);
         gameBoard.setAlignment(Pos.CENTER);
 
-        //  6x6 grid
-        for (int i = 0; i < 6; i++) {
-            for (int j = 0; j < 6; j++) {
-                Rectangle cell = new Rectangle(60, 60);
+        //  grid and the exit block never change, so they are added once
+        int size = game.getSize();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                Rectangle cell = new Rectangle(CELL_SIZE, CELL_SIZE);
                 cell.setFill(Color.LIGHTGRAY);
                 cell.setStroke(Color.GRAY);
                 gameBoard.add(cell, j, i);
             }
         }
+        Rectangle exitBlock = new Rectangle(CELL_SIZE, CELL_SIZE);
+        exitBlock.setFill(Color.DARKGRAY);
+        exitBlock.setStroke(Color.BLACK);
+        gameBoard.add(exitBlock, game.getExit().getCol(), game.getExit().getRow());
+
+        // the board redraws itself from model notifications
+        game.addObserver(new RushHourObserver() {
+            @Override
+            public void boardChanged() {
+                boardVersion++;
+                updateBoard();
+            }
+
+            @Override
+            public void vehicleMoved(Vehicle vehicle) {
+                boardVersion++;
+                placeVehicle(vehicle);
+            }
+        });
 
         // control buttons
-        HBox buttonBox = new HBox(10);
+        buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER);
         Button upButton = new Button("Up");
         Button downButton = new Button("Down");
         Button leftButton = new Button("Left");
         Button rightButton = new Button("Right");
         Button solve = new Button("Solve");
+        Button hint = new Button("Hint");
+        cancelButton = new Button("Cancel");
+        cancelButton.setDisable(true);
 
         // setting up button actions
         upButton.setOnAction(e -> moveVehicle(Direction.UP)); 
         downButton.setOnAction(e -> moveVehicle(Direction.DOWN));
         leftButton.setOnAction(e -> moveVehicle(Direction.LEFT));
         rightButton.setOnAction(e -> moveVehicle(Direction.RIGHT));
-        solve.setOnAction(e -> {
-            try {
-                RushHourSolver initial = new RushHourSolver(game);
-                Backtracker backtracker = new Backtracker(true);
-                RushHourSolver solution = backtracker.solve(initial);
-        
-                if (solution != null) {
-                    game = solution.RushHour();  // Assuming RushHourSolver has a method .rushHour() that returns a RushHour object
-                    updateBoard();
-                    moveCountLabel.setText("Moves: " + game.getMoveCount());
-                    displayGameStatus("Solved the puzzle!");
-                } else {
-                    displayGameStatus("No solution found.");
-                }
-            } catch (RushHourException ex) {
-                displayGameStatus("Error while solving: " + ex.getMessage());
+        solve.setOnAction(e -> solveInBackground());
+        hint.setOnAction(e -> showHint());
+        cancelButton.setOnAction(e -> {
+            if (solveLimits != null) {
+                solveLimits.cancel();
             }
         });
-        
-        
 
-
-        buttonBox.getChildren().addAll(upButton, downButton, leftButton, rightButton,solve);
+        buttonBox.getChildren().addAll(upButton, downButton, leftButton, rightButton, solve, hint, cancelButton);
+
+        // new game of a chosen difficulty, in moves of the optimal solution
+        newGameBox = new HBox(10);
+        newGameBox.setAlignment(Pos.CENTER);
+        Button newGame = new Button("New game");
+        newGame.setOnAction(e -> initializeGame());
+        difficultyBox = new ComboBox<>();
+        if (corpus != null) {
+            difficultyBox.getItems().addAll(corpus.getDifficulties());
+            difficultyBox.setValue(difficultyBox.getItems().get(difficultyBox.getItems().size() / 2));
+            newGameBox.getChildren().addAll(new Label("Moves:"), difficultyBox);
+        }
+        newGameBox.getChildren().add(newGame);
 
         // add all components
-        root.getChildren().addAll(statusLabel, moveCountLabel, gameBoard, buttonBox);
+        root.getChildren().addAll(statusLabel, moveCountLabel, gameBoard, buttonBox, newGameBox);
 
         // set up the scene
-        Scene scene = new Scene(root, 400, 500);
+        Scene scene = new Scene(root, 400, 540);
         stage.setTitle("Rush Hour");
         stage.setScene(scene);
         stage.show();
@@ -121,32 +197,76 @@ public class App extends Application {
 
     private void initializeGame() {
         // reset
+        stopBackgroundWork();
+        selectedVehicle = null;
         game.reset();
+        moveCountLabel.setText("Moves: 0");
+
+        // a puzzle from the corpus when there is one, otherwise two random cars
+        RushHour puzzle = corpus == null ? null : corpus.draw(difficultyBox.getValue(), random);
+        if (puzzle != null) {
+            try {
+                for (Vehicle vehicle : puzzle.getVehicles()) {
+                    game.addVehicle(vehicle);
+                }
+                displayGameStatus("New game, solvable in " + corpus.movesOf(puzzle) + " moves");
+            } catch (RushHourException e) {
+                displayGameStatus("Error: " + e.getMessage());
+            }
+            return;
+        }
 
         // add vehicles 
         try {
-            game.addVehicle(new Vehicle('X', new Position(EXIT_ROW, 0), new Position(EXIT_ROW, 1))); // Red car
+            int exitRow = game.getExit().getRow();
+            game.addVehicle(new Vehicle('X', new Position(exitRow, 0), new Position(exitRow, 1))); // Red car
             addRandomBlueCars(); // Add blue cars with random positions
         } catch (RushHourException e) {
             displayGameStatus("Error: " + e.getMessage());
         }
+    }
 
-        // display vehicles and the exit block on the board
-        updateBoard();
+    // reads the corpus and keeps the puzzles that fit this board
+    private PuzzleCorpus loadCorpus() {
+        String file = System.getProperty("rushhour.corpus");
+        InputStream bundled = file == null ? App.class.getResourceAsStream("puzzles.txt") : null;
+        if (file == null && bundled == null) {
+            return null;
+        }
+        try (BufferedReader in = file != null
+                ? Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(bundled, StandardCharsets.UTF_8))) {
+            PuzzleCorpus all = PuzzleCorpus.read(in);
+            PuzzleCorpus playable = new PuzzleCorpus();
+            for (int moves : all.getDifficulties()) {
+                for (RushHour puzzle : all.getPuzzles(moves)) {
+                    if (puzzle.getSize() == game.getSize() && puzzle.getExit().equals(game.getExit())) {
+                        playable.add(puzzle, moves);
+                    }
+                }
+            }
+            return playable.isEmpty() ? null : playable;
+        } catch (IOException | RushHourException e) {
+            System.err.println("Ignoring puzzle corpus: " + e.getMessage());
+            return null;
+        }
     }
 
     private void addRandomBlueCars() throws RushHourException {
         Random random = new Random();
+        int size = game.getSize();
+        int exitRow = game.getExit().getRow();
+        int exitCol = game.getExit().getCol();
     
         // First blue car (A): Must have at least one block in the same row as the red car and move vertically
         int firstCarCol;
         int firstCarRow;
         do {
-            firstCarCol = random.nextInt(6); // Random column (0 to 5)
-            firstCarRow = random.nextInt(5); // Random starting row (0 to 4) for vertical movement
-        } while (firstCarCol == EXIT_COL || // Avoid the exit column
-                 (firstCarRow == EXIT_ROW && (firstCarCol == 0 || firstCarCol == 1)) || // Avoid overlapping with the red car
-                 (firstCarRow + 1 == EXIT_ROW && (firstCarCol == 0 || firstCarCol == 1))); // Avoid overlapping with the red car
+            firstCarCol = random.nextInt(size); // Random column
+            firstCarRow = random.nextInt(size - 1); // Random starting row for vertical movement
+        } while (firstCarCol == exitCol || // Avoid the exit column
+                 (firstCarRow == exitRow && (firstCarCol == 0 || firstCarCol == 1)) || // Avoid overlapping with the red car
+                 (firstCarRow + 1 == exitRow && (firstCarCol == 0 || firstCarCol == 1))); // Avoid overlapping with the red car
     
         game.addVehicle(new Vehicle('A', new Position(firstCarRow, firstCarCol), new Position(firstCarRow + 1, firstCarCol)));
     
@@ -154,60 +274,252 @@ public class App extends Application {
         int secondCarCol;
         int secondCarRow;
         do {
-            secondCarCol = random.nextInt(6); // Random column (0 to 5)
-            secondCarRow = random.nextInt(5); // Random starting row (0 to 4) for vertical movement
-        } while (secondCarCol == EXIT_COL || // avoiding
+            secondCarCol = random.nextInt(size); // Random column
+            secondCarRow = random.nextInt(size - 1); // Random starting row for vertical movement
+        } while (secondCarCol == exitCol || // avoiding
                  secondCarCol == firstCarCol ||
-                 (secondCarRow == EXIT_ROW && (secondCarCol == 0 || secondCarCol == 1)) || 
-                 (secondCarRow + 1 == EXIT_ROW && (secondCarCol == 0 || secondCarCol == 1)) || 
+                 (secondCarRow == exitRow && (secondCarCol == 0 || secondCarCol == 1)) || 
+                 (secondCarRow + 1 == exitRow && (secondCarCol == 0 || secondCarCol == 1)) || 
                  (secondCarRow == firstCarRow && secondCarCol == firstCarCol) || 
                  (secondCarRow + 1 == firstCarRow && secondCarCol == firstCarCol)); 
     
         game.addVehicle(new Vehicle('B', new Position(secondCarRow, secondCarCol), new Position(secondCarRow + 1, secondCarCol)));
     }
+    // syncs vehicle nodes with the model: drops removed vehicles, adds new ones, places all of them
     private void updateBoard() {
-        // clear the board
-        gameBoard.getChildren().clear();
-
-        //  6x6 grid
-        for (int i = 0; i < 6; i++) {
-            for (int j = 0; j < 6; j++) {
-                Rectangle cell = new Rectangle(60, 60);
-                cell.setFill(Color.LIGHTGRAY);
-                cell.setStroke(Color.GRAY);
-                gameBoard.add(cell, j, i);
+        List<Vehicle> vehicles = game.getVehicles();
+        vehicleNodes.keySet().removeIf(id -> {
+            for (Vehicle v : vehicles) {
+                if (v.getId() == id) {
+                    return false;
+                }
             }
+            gameBoard.getChildren().remove(vehicleNodes.get(id));
+            return true;
+        });
+        for (Vehicle vehicle : vehicles) {
+            placeVehicle(vehicle);
         }
+    }
 
-        // Add the exit block
-        Rectangle exitBlock = new Rectangle(60, 60);
-        exitBlock.setFill(Color.DARKGRAY);
-        exitBlock.setStroke(Color.BLACK);
-        gameBoard.add(exitBlock, EXIT_COL, EXIT_ROW);
+    // moves a vehicle's node to the vehicle's current cells, creating the node the first time
+    private void placeVehicle(Vehicle vehicle) {
+        Position front = vehicle.getFront();
+        Position back = vehicle.getBack();
+        int row = Math.min(back.getRow(), front.getRow());
+        int col = Math.min(back.getCol(), front.getCol());
+        int rowSpan = Math.abs(front.getRow() - back.getRow()) + 1;
+        int colSpan = Math.abs(front.getCol() - back.getCol()) + 1;
+
+        Rectangle node = vehicleNodes.get(vehicle.getId());
+        if (node == null) {
+            node = new Rectangle(colSpan * CELL_SIZE + (colSpan - 1) * GAP, rowSpan * CELL_SIZE + (rowSpan - 1) * GAP);
+            node.setFill(vehicle.getId() == 'X' ? Color.RED : Color.BLUE); // Red for 'X', Blue for others
+            node.setStroke(Color.BLACK);
+            char id = vehicle.getId();
+            node.setOnMouseClicked(e -> selectVehicle(id)); // Select vehicle on click
+            vehicleNodes.put(id, node);
+            gameBoard.add(node, col, row, colSpan, rowSpan);
+        } else {
+            GridPane.setConstraints(node, col, row, colSpan, rowSpan);
+        }
+    }
 
-        // Add vehicles to the board
-        List<Vehicle> vehicles = game.getVehicles();
-        for (Vehicle vehicle : vehicles) {
-            Color vehicleColor = vehicle.getId() == 'X' ? Color.RED : Color.BLUE; // Example: Red for 'X', Blue for others
-            Position front = vehicle.getFront();
-            Position back = vehicle.getBack();
-
-            // Add rectangles for the vehicle's positions
-            for (int row = back.getRow(); row <= front.getRow(); row++) {
-                for (int col = back.getCol(); col <= front.getCol(); col++) {
-                    Rectangle vehicleRect = new Rectangle(60, 60);
-                    vehicleRect.setFill(vehicleColor);
-                    vehicleRect.setStroke(Color.BLACK);
-                    vehicleRect.setOnMouseClicked(e -> selectVehicle(vehicle)); // Select vehicle on click
-                    gameBoard.add(vehicleRect, col, row);
+    @Override
+    public void stop() {
+        try {
+            SolutionCache.saveDefault(); // only writes when -Drushhour.cache.file is set
+        } catch (IOException e) {
+            System.err.println("Could not save the solution cache: " + e.getMessage());
+        }
+    }
+
+    private void solveInBackground() {
+        // the engine spills to disk past its memory budget, so only time and Cancel stop it
+        SearchLimits limits = new SearchLimits(SOLVE_SECONDS * 1000, 0);
+        ExternalBreadthFirstSolver engine = new ExternalBreadthFirstSolver(SOLVE_MEMORY_MB * 1024 * 1024, null);
+        engine.setLimits(limits);
+        engine.setMetric(SOLVE_METRIC);
+        AtomicLong lastUpdate = new AtomicLong();
+        engine.setListener(new SolverListener() {
+            @Override
+            public void onProgress(SolverMetrics metrics) {
+                // called on the solver thread; only hand the FX thread a few updates a second
+                long now = System.nanoTime();
+                long last = lastUpdate.get();
+                if (now - last >= PROGRESS_INTERVAL_NANOS && lastUpdate.compareAndSet(last, now)) {
+                    String text = String.format("Solving... %,d states searched (%,.0f/s)",
+                        metrics.getStatesExpanded(), metrics.getStatesPerSecond());
+                    Platform.runLater(() -> displayGameStatus(text));
                 }
             }
+        });
+
+        RushHour snapshot = new RushHour(game); // the search never touches the board on screen
+        Task<RushHourSolver> task = new Task<RushHourSolver>() {
+            @Override
+            protected RushHourSolver call() throws RushHourException {
+                // boards solved before, or passed through by an earlier solution, skip the search
+                return RushHourSolver.solve(snapshot, new CachingSolver(SolutionCache.getDefault(), engine));
+            }
+        };
+        long version = boardVersion;
+        task.setOnSucceeded(e -> {
+            if (task != solveTask) {
+                return; // a new game stopped this solve
+            }
+            finishSolving();
+            if (version != boardVersion) {
+                return;
+            }
+            RushHourSolver solution = task.getValue();
+            if (solution != null) {
+                replay(solution.getMoves());
+            } else {
+                displayGameStatus("No solution found.");
+            }
+        });
+        task.setOnFailed(e -> {
+            if (task != solveTask) {
+                return;
+            }
+            finishSolving();
+            Throwable error = task.getException();
+            if (error instanceof SearchAbortedException
+                    && ((SearchAbortedException) error).getReason() == SearchAbortedException.Reason.CANCELLED) {
+                displayGameStatus("Solving cancelled.");
+            } else {
+                displayGameStatus("Error while solving: " + error.getMessage());
+            }
+        });
+
+        solveLimits = limits;
+        solveTask = task;
+        setSolving(true);
+        displayGameStatus("Solving...");
+        solverExecutor.submit(task);
+    }
+
+    // the first hint of a game explores the board's states; later ones are lookups
+    private void showHint() {
+        RushHour snapshot = new RushHour(game);
+        long version = boardVersion;
+        Task<Move> task = new Task<Move>() {
+            @Override
+            protected Move call() throws RushHourException {
+                return hintEngine.hint(snapshot);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (task != hintTask) {
+                return;
+            }
+            hintTask = null;
+            if (version != boardVersion) {
+                return; // the player moved on while the hint was computed
+            }
+            Move move = task.getValue();
+            if (move != null) {
+                selectVehicle(move.getVehicleId());
+                displayGameStatus("Hint: move " + move.getVehicleId() + " " + move.getDirection()
+                    + (move.getDistance() > 1 ? " " + move.getDistance() + " cells" : ""));
+            } else if (game.isGameOver()) {
+                displayGameStatus("The puzzle is already solved!");
+            } else {
+                displayGameStatus("No solution from here.");
+            }
+        });
+        task.setOnFailed(e -> {
+            if (task == hintTask) {
+                hintTask = null;
+                displayGameStatus("Error while finding a hint: " + task.getException().getMessage());
+            }
+        });
+        hintTask = task;
+        solverExecutor.submit(task);
+    }
+
+    // plays the solution on the real board one move per step; each move only repositions one node
+    private void replay(List<Move> moves) {
+        if (moves.isEmpty()) {
+            displayGameStatus("The puzzle is already solved!");
+            return;
         }
+        Timeline timeline = new Timeline();
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            timeline.getKeyFrames().add(new KeyFrame(REPLAY_STEP.multiply(i + 1), e -> {
+                try {
+                    game.moveVehicle(move.getVehicleId(), move.getDirection(), move.getDistance());
+                    moveCountLabel.setText("Moves: " + game.getMoveCount());
+                } catch (RushHourException ex) {
+                    displayGameStatus("Error while replaying: " + ex.getMessage());
+                }
+            }));
+        }
+        timeline.setOnFinished(e -> {
+            replayTimeline = null;
+            setSolving(false);
+            displayGameStatus("Solved the puzzle in " + moves.size() + " moves!");
+        });
+        setSolving(true);
+        cancelButton.setDisable(true);
+        displayGameStatus("Replaying solution...");
+        replayTimeline = timeline;
+        timeline.play();
+    }
+
+    private void finishSolving() {
+        solveLimits = null;
+        solveTask = null;
+        setSolving(false);
+    }
+
+    // cancels the running solve and hint and stops the replay, so none of them touches the next board;
+    // the tasks are not interrupted, their results are dropped when they finish
+    private void stopBackgroundWork() {
+        if (solveLimits != null) {
+            solveLimits.cancel();
+        }
+        if (solveTask != null) {
+            solveTask.cancel(false);
+        }
+        if (hintTask != null) {
+            hintTask.cancel(false);
+            hintTask = null;
+        }
+        if (replayTimeline != null) {
+            replayTimeline.stop();
+            replayTimeline = null;
+        }
+        finishSolving();
+    }
+
+    // while a solve runs, only Cancel stays usable
+    private void setSolving(boolean solving) {
+        buttonBox.getChildren().forEach(node -> node.setDisable(solving));
+        newGameBox.setDisable(solving);
+        cancelButton.setDisable(!solving);
     }
 
-    private void selectVehicle(Vehicle vehicle) {
-        selectedVehicle = vehicle;
-        displayGameStatus("Selected vehicle: " + vehicle.getId());
+    // an unknown -Drushhour.solve.metric falls back to cells instead of keeping the window from opening
+    private static MoveMetric solveMetric() {
+        String name = System.getProperty("rushhour.solve.metric", "cells");
+        try {
+            return MoveMetric.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown rushhour.solve.metric " + name + ", using cells");
+            return MoveMetric.CELLS;
+        }
+    }
+
+    private void selectVehicle(char id) {
+        try {
+            selectedVehicle = game.getVehicle(id);
+            displayGameStatus("Selected vehicle: " + id);
+        } catch (RushHourException e) {
+            displayGameStatus("Error: " + e.getMessage());
+        }
     }
 
     private void moveVehicle(Direction direction) {
@@ -218,7 +530,6 @@ public class App extends Application {
 
         try {
             game.moveVehicle(selectedVehicle.getId(), direction);
-            updateBoard();
             moveCountLabel.setText("Moves: " + game.getMoveCount());
 
             // Check if the game is won